@@ -0,0 +1,67 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 작업자 조회 방식에 따른 감사(auditing) INSERT 처리량 비교
+ * - random : 쓰기마다 UUID.randomUUID() (이전 방식)
+ * - cached : 트랜잭션마다 한 번만 구하고 ThreadLocalRandom 기반 식별자 사용
+ * 동시 쓰기에서의 경합을 보기 위해 여러 스레드로 실행한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class AuditedInsertBenchmark {
+
+    private static final int ROWS_PER_TRANSACTION = 100;
+
+    @Param({"random", "cached"})
+    String mode;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate tx;
+    EntityManager em;
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JpaBenchmarkSupport.start("datajpa.audit.mode=" + mode);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        em = context.getBean(EntityManager.class);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_TRANSACTION)
+    public void insert() {
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                em.persist(new Member("member" + i, (long) i));
+            }
+            em.flush();
+            em.clear();
+        });
+    }
+
+    /**
+     * 리포지토리 save 경로(트랜잭션 하나에 INSERT 하나)
+     */
+    @Benchmark
+    public Member save() {
+        return memberRepository.save(new Member("member", 10L));
+    }
+}
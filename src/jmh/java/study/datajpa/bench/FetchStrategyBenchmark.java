@@ -0,0 +1,143 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * MemberRepository의 회원 + 팀 조회 방식 비교
+ * 모든 회원의 username은 같으므로 username 조건 쿼리도 전체 회원을 읽는다.
+ * 각 호출은 읽기 전용 트랜잭션 하나(새 영속성 컨텍스트)에서 실행되고, 팀 이름까지 읽는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FetchStrategyBenchmark {
+
+    private static final String USERNAME = "member";
+
+    @Param({"100", "1000"})
+    int members;
+
+    @Param({"10"})
+    int teams;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JpaBenchmarkSupport.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+
+        List<Team> savedTeams = new ArrayList<>();
+        for (int i = 0; i < teams; i++) {
+            savedTeams.add(teamRepository.save(new Team("team" + i)));
+        }
+        memberRepository.saveAllBatched(IntStream.range(0, members)
+                .mapToObj(i -> new Member(USERNAME, (long) i, savedTeams.get(i % teams)))
+                .collect(Collectors.toList()));
+
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void lazyLoading(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeMembers(memberRepository.findMemberCustom(), bh));
+    }
+
+    @Benchmark
+    public void fetchJoin(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeMembers(memberRepository.findMemberFetchJoin(), bh));
+    }
+
+    @Benchmark
+    public void entityGraphFindAll(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeMembers(memberRepository.findAll(), bh));
+    }
+
+    @Benchmark
+    public void entityGraphJpql(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeMembers(memberRepository.findMemberEntityGraph(), bh));
+    }
+
+    @Benchmark
+    public void namedEntityGraph(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeMembers(memberRepository.findNamedEntityGraphByUsername(USERNAME), bh));
+    }
+
+    @Benchmark
+    public void dtoConstructorProjection(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (MemberDto dto : memberRepository.findMemberDto()) {
+                bh.consume(dto.getUsername());
+                bh.consume(dto.getTeamName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void interfaceProjection(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (UsernameOnly projection : memberRepository.findProjectionsByUsername(USERNAME, UsernameOnly.class)) {
+                bh.consume(projection.getUsername());
+            }
+        });
+    }
+
+    @Benchmark
+    public void classProjection(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (UsernameOnlyDto projection : memberRepository.findProjectionsByUsername(USERNAME, UsernameOnlyDto.class)) {
+                bh.consume(projection.getUsername());
+            }
+        });
+    }
+
+    @Benchmark
+    public void nestedProjection(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (NestedClosedProjections projection : memberRepository.findProjectionsByUsername(USERNAME, NestedClosedProjections.class)) {
+                bh.consume(projection.getUsername());
+                bh.consume(projection.getTeam().getName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void nativeProjection(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (MemberProjection projection : memberRepository.findByNativeProjection(PageRequest.of(0, members))) {
+                bh.consume(projection.getUsername());
+                bh.consume(projection.getTeamName());
+            }
+        });
+    }
+
+    private static void consumeMembers(List<Member> result, Blackhole bh) {
+        for (Member member : result) {
+            bh.consume(member.getUsername());
+            bh.consume(member.getTeam().getName());
+        }
+    }
+}
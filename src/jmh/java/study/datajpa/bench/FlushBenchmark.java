@@ -0,0 +1,96 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 영속성 컨텍스트에 회원 N명이 있을 때 한 명만 바꾸고 flush 하는 비용
+ * 보강 전에는 flush 마다 N명 전체를 스냅샷과 필드 단위로 비교하고, 보강 후에는 변경 표시된 엔티티만 본다.
+ * 엔티티 하나당 힙 사용량(로딩 전후 used heap 차이 / N)은 Trial 시작 시 출력한다.
+ * 비교: ./gradlew jmh, ./gradlew jmh -PnoEnhance
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FlushBenchmark {
+
+    @Param({"1000", "10000"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory emf;
+
+    EntityManager em;
+    List<Member> managed;
+    int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JpaBenchmarkSupport.start();
+        emf = context.getBean(EntityManagerFactory.class);
+
+        Team team = context.getBean(TeamRepository.class).save(new Team("team"));
+        context.getBean(MemberRepository.class).saveAllBatched(IntStream.range(0, members)
+                .mapToObj(i -> new Member("member" + i, (long) i, team))
+                .collect(Collectors.toList()));
+
+        printHeapPerEntity();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void load() {
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        managed = em.createQuery("select m from Member m", Member.class).getResultList();
+    }
+
+    @TearDown(Level.Iteration)
+    public void rollback() {
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    @Benchmark
+    public void flushOneChange() {
+        Member member = managed.get(counter++ % managed.size());
+        member.changeUsername("changed" + counter);
+        em.flush();
+    }
+
+    private void printHeapPerEntity() {
+        EntityManager measured = emf.createEntityManager();
+        try {
+            long before = usedHeap();
+            List<Member> loaded = measured.createQuery("select m from Member m", Member.class).getResultList();
+            long after = usedHeap();
+            System.out.printf("%n[FlushBenchmark] members=%d, heap per managed entity = %d bytes%n",
+                    loaded.size(), (after - before) / Math.max(1, loaded.size()));
+        } finally {
+            measured.close();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
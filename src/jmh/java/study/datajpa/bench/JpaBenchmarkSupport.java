@@ -0,0 +1,37 @@
+package study.datajpa.bench;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 벤치마크용으로 웹 서버 없이 JPA 계층만 띄운다.
+ * 벤치마크마다 별도의 H2 메모리 DB를 쓰고, SQL 로그는 모두 끈다.
+ */
+public class JpaBenchmarkSupport {
+
+    private JpaBenchmarkSupport() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> all = new ArrayList<>(Arrays.asList(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "logging.level.org.hibernate.SQL=warn",
+                "logging.level.p6spy=warn",
+                "decorator.datasource.p6spy.enable-logging=false"
+        ));
+        all.addAll(Arrays.asList(properties));
+
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(all.toArray(new String[0]))
+                .run();
+    }
+}
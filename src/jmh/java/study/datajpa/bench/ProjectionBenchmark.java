@@ -0,0 +1,61 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import study.datajpa.repository.MemberProjection;
+import study.datajpa.repository.projection.GeneratedProjectionFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 튜플(Map) 결과를 MemberProjection으로 바꾸는 비용 비교 (DB 제외)
+ * - proxy : 스프링 데이터 기본 JDK 프록시
+ * - generated : GeneratedProjectionFactory 생성 클래스
+ * -prof gc 의 gc.alloc.rate.norm 으로 행당 할당량을 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectionBenchmark {
+
+    @Param({"proxy", "generated"})
+    String factory;
+
+    @Param({"1000"})
+    int rows;
+
+    ProjectionFactory projectionFactory;
+    List<Map<String, Object>> tuples;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        projectionFactory = "generated".equals(factory)
+                ? new GeneratedProjectionFactory()
+                : new SpelAwareProxyProjectionFactory();
+
+        tuples = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> tuple = new HashMap<>();
+            tuple.put("id", (long) i);
+            tuple.put("username", "member" + i);
+            tuple.put("teamName", "team" + (i % 10));
+            tuples.add(tuple);
+        }
+    }
+
+    @Benchmark
+    public void project(Blackhole blackhole) {
+        for (Map<String, Object> tuple : tuples) {
+            MemberProjection projection = projectionFactory.createProjection(MemberProjection.class, tuple);
+            blackhole.consume(projection.getId());
+            blackhole.consume(projection.getUsername());
+            blackhole.consume(projection.getTeamName());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Specification(findAll(spec, pageable)) 과 캐시된 JPQL(search(condition, pageable)) 의 호출당 비용 비교
+ * 데이터가 적어서 DB 시간보다 쿼리 생성/해석 비용이 드러나도록 했다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpecificationBenchmark {
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnly;
+    PageRequest pageRequest = PageRequest.of(0, 10);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JpaBenchmarkSupport.start();
+        memberRepository = context.getBean(MemberRepository.class);
+        Team team = context.getBean(TeamRepository.class).save(new Team("teamA"));
+        memberRepository.saveAllBatched(IntStream.range(0, 20)
+                .mapToObj(i -> new Member("m" + i, (long) i, team))
+                .collect(Collectors.toList()));
+
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Member> specification() {
+        return readOnly.execute(status -> {
+            Specification<Member> spec = MemberSpec.username("m1").and(MemberSpec.teamName("teamA"));
+            return memberRepository.findAll(spec, pageRequest);
+        });
+    }
+
+    @Benchmark
+    public Page<Member> cachedQueryShape() {
+        return readOnly.execute(status ->
+                memberRepository.search(new MemberSearchCondition("m1", "teamA"), pageRequest));
+    }
+}
@@ -0,0 +1,65 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * p6spy 계층(SqlTraceListener, QueryStatsJdbcListener)이 SQL 한 번 + 행 N개 읽기에 더하는 비용
+ * - noP6spy : 데이터소스를 감싸지 않음 (decorator.datasource.enabled=false)
+ * - off : 기본 설정, 추적은 꺼져 있지만 p6spy가 바인딩 값을 모으고 QueryStatsJdbcListener가 동작한다.
+ * - on : 추적을 켜고 모든 SQL을 남긴다. (로그 출력은 끄고 SQL 문자열 생성까지만)
+ * off - noP6spy 가 추적을 꺼 두었을 때 남는 비용이다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SqlTraceBenchmark {
+
+    @Param({"noP6spy", "off", "on"})
+    String mode;
+
+    @Param({"100"})
+    int members;
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory emf;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = JpaBenchmarkSupport.start(
+                "decorator.datasource.enabled=" + !"noP6spy".equals(mode),
+                "datajpa.sql-trace.enabled=" + "on".equals(mode),
+                "logging.level.study.datajpa.sql.trace=warn");
+        emf = context.getBean(EntityManagerFactory.class);
+
+        context.getBean(MemberRepository.class).saveAllBatched(IntStream.range(0, members)
+                .mapToObj(i -> new Member("member" + i, (long) i))
+                .collect(Collectors.toList()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void selectByAge(Blackhole blackhole) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            blackhole.consume(em.createQuery("select m.username from Member m where m.age >= :age", String.class)
+                    .setParameter("age", 0L)
+                    .getResultList());
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -2,24 +2,19 @@ package study.datajpa;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.data.domain.AuditorAware;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
-import java.util.Optional;
-import java.util.UUID;
-
 @EnableJpaAuditing
 @SpringBootApplication
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(DataJpaApplication.class, args);
+		SpringApplication application = new SpringApplication(DataJpaApplication.class);
+		// 기동 단계(빈 생성, 리포지토리 초기화)별 시간을 기록한다. StartupTimelineReporter, /actuator/startup
+		application.setApplicationStartup(new BufferingApplicationStartup(10000));
+		application.run(args);
 	}
 
-	@Bean
-	public AuditorAware<String> auditorProvider() {
-		// 테스트용도, 실제는 세션에서 가져다가 쓰면 된다.
-		return () -> Optional.of(UUID.randomUUID().toString());
-	}
+	// 작업자(AuditorAware) 설정은 study.datajpa.audit.AuditConfig 참고
 }
@@ -0,0 +1,35 @@
+package study.datajpa.audit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 작업자(createdBy, lastModifiedBy) 설정
+ * datajpa.audit.mode
+ * - cached : 요청/트랜잭션마다 한 번만 구해서 캐시한다. (기본)
+ * - random : 쓰기마다 UUID.randomUUID()를 만든다. (이전 방식, 벤치마크 비교용)
+ */
+@Configuration
+public class AuditConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditorResolver auditorResolver(@Value("${datajpa.audit.header:X-Auditor}") String header) {
+        return new RequestHeaderAuditorResolver(header);
+    }
+
+    @Bean
+    public AuditorAware<String> auditorProvider(AuditorResolver auditorResolver,
+                                                @Value("${datajpa.audit.mode:cached}") String mode) {
+        if ("random".equals(mode)) {
+            return () -> Optional.of(UUID.randomUUID().toString());
+        }
+        return new CachingAuditorAware(auditorResolver);
+    }
+}
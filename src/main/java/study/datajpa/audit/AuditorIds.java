@@ -0,0 +1,22 @@
+package study.datajpa.audit;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 작업자를 알 수 없을 때 쓰는 임시 식별자
+ * UUID.randomUUID()는 SecureRandom을 공유해서 동시 쓰기에서 경합이 생기므로,
+ * 스레드마다 독립적인 ThreadLocalRandom으로 version 4 형식의 UUID를 만든다. (보안 용도로 쓰면 안 된다)
+ */
+public class AuditorIds {
+
+    private AuditorIds() {
+    }
+
+    public static String next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L; // version 4
+        long lsb = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L; // IETF variant
+        return new UUID(msb, lsb).toString();
+    }
+}
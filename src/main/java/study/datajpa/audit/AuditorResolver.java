@@ -0,0 +1,13 @@
+package study.datajpa.audit;
+
+import java.util.Optional;
+
+/**
+ * 현재 작업자(principal)를 찾는다.
+ * CachingAuditorAware가 요청 또는 트랜잭션마다 한 번만 호출하므로 구현이 다소 무거워도 괜찮다.
+ * 다른 방식(시큐리티 컨텍스트 등)이 필요하면 이 타입의 빈을 등록하면 된다.
+ */
+public interface AuditorResolver {
+
+    Optional<String> resolve();
+}
@@ -0,0 +1,61 @@
+package study.datajpa.audit;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+
+/**
+ * 작업자를 요청 또는 트랜잭션마다 한 번만 구하고 캐시한다.
+ * 1. 웹 요청 안이면 요청 속성에 캐시한다.
+ * 2. 트랜잭션 안이면 트랜잭션 리소스로 캐시하고, 트랜잭션이 끝나면 지운다.
+ * 3. 둘 다 아니면 매번 구한다.
+ * 작업자를 찾지 못하면 AuditorIds로 만든 임시 식별자를 쓴다.
+ */
+public class CachingAuditorAware implements AuditorAware<String> {
+
+    private static final String ATTRIBUTE_NAME = CachingAuditorAware.class.getName() + ".AUDITOR";
+
+    private final AuditorResolver resolver;
+
+    public CachingAuditorAware(AuditorResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            String cached = (String) request.getAttribute(ATTRIBUTE_NAME, RequestAttributes.SCOPE_REQUEST);
+            if (cached == null) {
+                cached = resolveAuditor();
+                request.setAttribute(ATTRIBUTE_NAME, cached, RequestAttributes.SCOPE_REQUEST);
+            }
+            return Optional.of(cached);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            String cached = (String) TransactionSynchronizationManager.getResource(ATTRIBUTE_NAME);
+            if (cached == null) {
+                cached = resolveAuditor();
+                TransactionSynchronizationManager.bindResource(ATTRIBUTE_NAME, cached);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(ATTRIBUTE_NAME);
+                    }
+                });
+            }
+            return Optional.of(cached);
+        }
+
+        return Optional.of(resolveAuditor());
+    }
+
+    private String resolveAuditor() {
+        return resolver.resolve().orElseGet(AuditorIds::next);
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.audit;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+/**
+ * 요청 헤더에서 작업자를 꺼낸다. 웹 요청이 아니거나 헤더가 없으면 빈 값을 반환한다.
+ */
+public class RequestHeaderAuditorResolver implements AuditorResolver {
+
+    private final String headerName;
+
+    public RequestHeaderAuditorResolver(String headerName) {
+        this.headerName = headerName;
+    }
+
+    @Override
+    public Optional<String> resolve() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return Optional.empty();
+        }
+
+        String auditor = ((ServletRequestAttributes) attributes).getRequest().getHeader(headerName);
+        return StringUtils.hasText(auditor) ? Optional.of(auditor) : Optional.empty();
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.support.RepositoryExecutor;
+
+/**
+ * 비동기 컨트롤러(/async/**)가 사용하는 리포지토리 실행기 설정
+ * 스레드 수 기본값은 커넥션 풀 최대 크기와 같다.
+ */
+@Configuration
+public class AsyncRepositoryConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public RepositoryExecutor repositoryExecutor(
+            @Value("${datajpa.async.threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+            @Value("${datajpa.async.queue-capacity:100}") int queueCapacity,
+            MeterRegistry registry) {
+        return new RepositoryExecutor(threads, queueCapacity, registry);
+    }
+}
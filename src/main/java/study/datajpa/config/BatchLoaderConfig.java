@@ -0,0 +1,52 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.support.BatchLoader;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 회원 id 단건 조회를 모아서 in 쿼리 한 번으로 조회하는 로더 설정
+ * window 만큼 응답이 늦어질 수 있으므로 짧게 유지한다. 요청 스레드는 timeout 까지만 기다리고 503을 응답한다.
+ * - memberLoader : /members2/{id} 경로 변수 변환 (WebConfig)
+ * - memberDtoLoader : MemberDtoCache 캐시 미스 (/members/{id})
+ */
+@Configuration
+public class BatchLoaderConfig {
+
+    @Value("${datajpa.batch-loader.window:2ms}")
+    private Duration window;
+
+    @Value("${datajpa.batch-loader.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${datajpa.batch-loader.timeout:1s}")
+    private Duration timeout;
+
+    @Value("${datajpa.batch-loader.threads:4}")
+    private int threads;
+
+    @Bean(destroyMethod = "shutdown")
+    public BatchLoader<Long, Member> memberLoader(MemberRepository memberRepository, MeterRegistry registry) {
+        return new BatchLoader<>("member",
+                ids -> memberRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Member::getId, Function.identity())),
+                window, maxBatchSize, timeout, threads, registry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public BatchLoader<Long, MemberDto> memberDtoLoader(MemberRepository memberRepository, MeterRegistry registry) {
+        return new BatchLoader<>("memberDto",
+                ids -> memberRepository.findMemberDtoByIdIn(ids).stream()
+                        .collect(Collectors.toMap(MemberDto::getId, Function.identity())),
+                window, maxBatchSize, timeout, threads, registry);
+    }
+}
@@ -0,0 +1,33 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import study.datajpa.support.NamedQueryPrecompiler;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 기동 시간 단축 설정 (fast-startup 프로파일, application-fast-startup.yml)
+ * - EntityManagerFactory를 백그라운드 스레드에서 만든다. (리포지토리 지연 초기화와 함께 사용)
+ * - 기동 시 named query 검사를 끄고, 기동 완료 후 백그라운드에서 검사하면서 쿼리 플랜 캐시를 채운다.
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Bean
+    public EntityManagerFactoryBuilderCustomizer entityManagerFactoryBootstrapExecutor(
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor applicationTaskExecutor) {
+        return builder -> builder.setBootstrapExecutor(applicationTaskExecutor);
+    }
+
+    @Bean
+    public NamedQueryPrecompiler namedQueryPrecompiler(EntityManagerFactory emf,
+                                                       @Qualifier("applicationTaskExecutor") AsyncTaskExecutor applicationTaskExecutor) {
+        return new NamedQueryPrecompiler(emf, applicationTaskExecutor);
+    }
+}
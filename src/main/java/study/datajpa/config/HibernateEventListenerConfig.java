@@ -0,0 +1,47 @@
+package study.datajpa.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.support.MemberDtoCacheListener;
+import study.datajpa.support.QueryStatsEntityListener;
+
+import java.util.List;
+
+/**
+ * 하이버네이트 이벤트 리스너 등록
+ * SessionFactory를 만드는 중에 Integrator로 등록하므로 EntityManagerFactory를 기다리지 않는다.
+ * (@PostConstruct에서 emf.unwrap 하면 fast-startup의 백그라운드 생성이 끝날 때까지 메인 스레드가 멈춘다.)
+ */
+@Configuration
+public class HibernateEventListenerConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer eventListenerIntegrator(QueryStatsEntityListener queryStatsEntityListener,
+                                                                MemberDtoCacheListener memberDtoCacheListener) {
+        Integrator integrator = new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                                  SessionFactoryServiceRegistry serviceRegistry) {
+                EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+                registry.appendListeners(EventType.POST_LOAD, queryStatsEntityListener);
+                registry.appendListeners(EventType.POST_UPDATE, memberDtoCacheListener);
+                registry.appendListeners(EventType.POST_DELETE, memberDtoCacheListener);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+            }
+        };
+        return hibernateProperties -> hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(integrator));
+    }
+}
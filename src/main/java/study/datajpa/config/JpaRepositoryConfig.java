@@ -0,0 +1,35 @@
+package study.datajpa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.config.BootstrapMode;
+import study.datajpa.repository.projection.ProjectingJpaRepositoryFactoryBean;
+
+/**
+ * 스프링 데이터 JPA 리포지토리 설정
+ * 인터페이스 Projection은 프록시 대신 생성 클래스로 만든다. (datajpa.projection.generated)
+ * fast-startup 프로파일에서는 리포지토리 초기화(쿼리 메서드 파싱 포함)를 컨텍스트 refresh 마지막으로 미룬다.
+ * (@EnableJpaRepositories를 직접 선언하므로 spring.data.jpa.repositories.bootstrap-mode 는 적용되지 않는다.)
+ */
+public class JpaRepositoryConfig {
+
+    @Configuration
+    @Profile("!fast-startup")
+    @EnableJpaRepositories(
+            basePackages = "study.datajpa.repository",
+            repositoryFactoryBeanClass = ProjectingJpaRepositoryFactoryBean.class
+    )
+    static class DefaultBootstrap {
+    }
+
+    @Configuration
+    @Profile("fast-startup")
+    @EnableJpaRepositories(
+            basePackages = "study.datajpa.repository",
+            repositoryFactoryBeanClass = ProjectingJpaRepositoryFactoryBean.class,
+            bootstrapMode = BootstrapMode.DEFERRED
+    )
+    static class DeferredBootstrap {
+    }
+}
@@ -0,0 +1,82 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import study.datajpa.support.ReplicaDataSources;
+import study.datajpa.support.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 레플리카 라우팅 설정 (datajpa.replica.enabled=true 일 때만 동작)
+ * 읽기 전용 트랜잭션은 레플리카로 보낸다. 하이버네이트 세션도 readOnly 가 되어 스냅샷을 만들지 않고 flush 하지 않는다.
+ * - SimpleJpaRepository의 조회 메서드 (findById, findAll ...)
+ * - @Transactional(readOnly = true) 서비스, 컨트롤러, 쿼리 메서드 (findReadOnlyByUsername)
+ * 트랜잭션이 끝나면 커넥션을 반납한다. (open-in-view 로 EntityManager가 요청 내내 유지되어도
+ * 처음 얻은 레플리카/primary 커넥션을 다음 트랜잭션에서 다시 쓰지 않는다.)
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "datajpa.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSources replicaDataSources(DataSourceProperties dataSourceProperties,
+                                                 ReplicaProperties replicaProperties,
+                                                 Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaProperties.getUrls()) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url);
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setUsername(replicaProperties.getUsername() != null
+                    ? replicaProperties.getUsername() : dataSourceProperties.determineUsername());
+            replica.setPassword(replicaProperties.getPassword() != null
+                    ? replicaProperties.getPassword() : dataSourceProperties.determinePassword());
+            replica.setReadOnly(true);
+            // 레플리카 장애 시 오래 기다리지 않고 primary로 넘어간다. 풀은 첫 커넥션 요청 때 만든다.
+            replica.setConnectionTimeout(replicaProperties.getConnectionTimeout().toMillis());
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+
+        ReplicaDataSources dataSources = new ReplicaDataSources(primary, replicas,
+                replicaProperties.getLagQuery(), replicaProperties.getMaxLag());
+        dataSources.start(replicaProperties.getProbeInterval());
+        return dataSources;
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaDataSources replicaDataSources) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaDataSources));
+    }
+
+    /**
+     * HibernateJpaVendorAdapter 기본값(DELAYED_ACQUISITION_AND_HOLD)은 EntityManager가 닫힐 때까지 커넥션을 유지한다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 레플리카 설정 (datajpa.replica.*)
+ * username, password를 지정하지 않으면 spring.datasource 와 같은 값을 쓴다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.replica")
+public class ReplicaProperties {
+
+    private boolean enabled;
+    private List<String> urls = new ArrayList<>();
+    private String username;
+    private String password;
+    private Duration connectionTimeout = Duration.ofMillis(500);
+    private Duration probeInterval = Duration.ofSeconds(5);
+    private String lagQuery;
+    private Duration maxLag = Duration.ofSeconds(5);
+}
@@ -0,0 +1,98 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.SharedCacheMode;
+import java.net.URI;
+import java.util.UUID;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 하이버네이트 2차 캐시, 쿼리 캐시 설정 (datajpa.cache.enabled=true 일 때만 동작)
+ * 영역마다 크기와 TTL이 제한된 로컬 Ehcache를 사용하고, 설정에 없는 영역은 기동 시점에 실패시킨다.
+ * JPQL 벌크 연산은 하이버네이트가 대상 엔티티 영역을 통째로 무효화하고,
+ * 쿼리 캐시는 테이블 변경 시각(default-update-timestamps-region)으로 무효화된다.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+@ConditionalOnProperty(prefix = "datajpa.cache", name = "enabled", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager jpaCacheManager(SecondLevelCacheProperties properties) {
+        ConfigurationBuilder configuration = ConfigurationBuilder.newConfigurationBuilder();
+        for (String name : properties.getRegions().keySet()) {
+            SecondLevelCacheProperties.Region region = properties.getRegions().get(name);
+            configuration = configuration.withCache(name, CacheConfigurationBuilder
+                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(region.getMaxEntries()))
+                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(region.getTtl()))
+                    .build());
+        }
+
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // 컨텍스트마다 독립된 캐시 매니저를 쓰도록 URI를 구분한다.
+        URI uri = URI.create("urn:datajpa:cache:" + UUID.randomUUID());
+        return provider.getCacheManager(uri, configuration.build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager jpaCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, JCacheRegionFactory.class.getName());
+            hibernateProperties.put(AvailableSettings.JPA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, jpaCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    /**
+     * 영역별 hit, miss, put 횟수를 jpa.cache.* 메트릭으로 노출한다.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory emf, SecondLevelCacheProperties properties) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : properties.getRegions().keySet()) {
+                counter("jpa.cache.requests", region, "hit", statistics, s -> count(s, region, CacheRegionStatistics::getHitCount)).register(registry);
+                counter("jpa.cache.requests", region, "miss", statistics, s -> count(s, region, CacheRegionStatistics::getMissCount)).register(registry);
+                counter("jpa.cache.puts", region, null, statistics, s -> count(s, region, CacheRegionStatistics::getPutCount)).register(registry);
+            }
+        };
+    }
+
+    private static FunctionCounter.Builder<Statistics> counter(String name, String region, String result,
+                                                               Statistics statistics, ToDoubleFunction<Statistics> count) {
+        FunctionCounter.Builder<Statistics> builder = FunctionCounter.builder(name, statistics, count)
+                .tag("region", region);
+        return result == null ? builder : builder.tag("result", result);
+    }
+
+    private static double count(Statistics statistics, String region, ToLongFunction<CacheRegionStatistics> count) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 2차 캐시 설정 (datajpa.cache.*)
+ * regions의 키는 하이버네이트 캐시 영역 이름(엔티티는 클래스 FQCN)이다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datajpa.cache")
+public class SecondLevelCacheProperties {
+
+    private boolean enabled;
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Region {
+        private Duration ttl = Duration.ofMinutes(10);
+        private long maxEntries = 1000;
+    }
+}
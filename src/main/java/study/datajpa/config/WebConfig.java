@@ -0,0 +1,28 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.datajpa.entity.Member;
+import study.datajpa.support.BatchLoader;
+
+/**
+ * 경로 변수 회원 id -> Member 변환 (/members2/{id})
+ * 스프링 데이터 DomainClassConverter(findById 단건 조회) 대신 BatchLoader로 동시 요청을 모아서 조회한다.
+ * 반환되는 Member는 준영속 상태이므로 지연 로딩 연관관계(team)는 사용할 수 없다.
+ * 로더가 timeout 안에 응답하지 않으면 MemberController가 503으로 응답한다.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final BatchLoader<Long, Member> memberLoader;
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        // String -> Member 로 등록하면 Object -> Object 인 DomainClassConverter보다 먼저 선택된다.
+        registry.addConverter(String.class, Member.class,
+                source -> source.isEmpty() ? null : memberLoader.get(Long.valueOf(source)));
+    }
+}
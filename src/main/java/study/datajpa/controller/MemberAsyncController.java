@@ -0,0 +1,49 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.CountMode;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.support.RepositoryExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * MemberController의 비동기 버전
+ * 톰캣 워커 스레드는 요청만 넘기고 바로 반환되며, DB 작업은 RepositoryExecutor에서 실행된다.
+ * 실행기가 포화되면 대기하지 않고 503을 응답한다.
+ * 단건 조회와 목록(Slice)만 옮겼다. /members2/{id}는 이미 BatchLoader의 제한된 실행기에서 조회하고,
+ * export(NDJSON)는 요청 스레드에서 응답 스트림에 직접 쓰는 트랜잭션이라 대상이 아니다.
+ */
+@RestController
+@RequestMapping("/async")
+@RequiredArgsConstructor
+public class MemberAsyncController {
+
+    private final MemberRepository memberRepository;
+    private final RepositoryExecutor repositoryExecutor;
+
+    @GetMapping("/members/{id}")
+    public CompletableFuture<String> findMember(@PathVariable Long id) {
+        return repositoryExecutor.submit(() -> memberRepository.findById(id).get().getUsername());
+    }
+
+    @GetMapping("/members")
+    public CompletableFuture<Slice<MemberDto>> list(@PageableDefault(size=5) Pageable pageable,
+                                                    @RequestParam(required = false) Long age,
+                                                    @RequestParam(defaultValue = "EXACT") CountMode count) {
+        return repositoryExecutor.submit(() -> memberRepository.searchMemberDto(age, pageable, count));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String rejected() {
+        return "busy";
+    }
+}
@@ -1,45 +1,148 @@
 package study.datajpa.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.dto.CursorPage;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.CountMode;
+import study.datajpa.repository.MemberCursor;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberDtoCache;
 
 import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
     private final MemberRepository memberRepository;
+    private final MemberDtoCache memberDtoCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${datajpa.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable Long id) {
-        Member member = memberRepository.findById(id).get();
+        MemberDto member = memberDtoCache.get(id).get();
         return member.getUsername();
     }
 
+    /**
+     * 경로 변수를 WebConfig의 변환기가 Member로 바꾼다. 동시 요청은 in 쿼리 한 번으로 모아서 조회한다.
+     */
     @GetMapping("/members2/{id}")
     public String findMember2(@PathVariable("id") Member member) {
         return member.getUsername();
     }
 
+    /**
+     * count 파라미터로 전체 개수를 구하는 방식을 고른다. (EXACT, NONE, CACHED, PARALLEL)
+     * NONE 이면 count 쿼리 없이 Slice를 반환한다.
+     */
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size=5) Pageable pageable) {
-        return memberRepository.findAll(pageable).map(MemberDto::new);
+    public Slice<MemberDto> list(@PageableDefault(size=5) Pageable pageable,
+                                 @RequestParam(required = false) Long age,
+                                 @RequestParam(defaultValue = "EXACT") CountMode count) {
+        return memberRepository.searchMemberDto(age, pageable, count);
     }
 
-//    @PostConstruct
-    public void init() {
-        for(int i = 0; i < 100; i++) {
-            memberRepository.save(new Member("user" + i, Long.valueOf(i)));
+    /**
+     * 키셋 페이징, 첫 페이지는 /members?cursor= 로 요청하고 이후에는 응답의 nextCursor를 넘긴다.
+     * size는 Pageable과 같은 최대값(max-page-size)으로 자른다. 잘못된 커서나 1보다 작은 size는 400
+     */
+    @GetMapping(value = "/members", params = "cursor")
+    public CursorPage<MemberDto> listByCursor(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "5") int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size는 1 이상이어야 합니다. size = " + size);
+        }
+        // 리포지토리를 거치면 InvalidDataAccessApiUsageException으로 바뀌므로 먼저 확인한다.
+        try {
+            MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         }
+        return memberRepository.findMemberDtoByCursor(cursor, Math.min(size, maxPageSize));
+    }
+
+    /**
+     * 전체 회원을 NDJSON(한 줄에 JSON 하나)으로 내려준다.
+     * 스트림에서 한 건씩 읽어 바로 응답에 쓰므로 회원 수와 관계없이 메모리 사용량이 일정하다.
+     */
+    @GetMapping(value = "/members/export", produces = "application/x-ndjson")
+    @Transactional(readOnly = true)
+    public void export(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
 
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        try (Stream<MemberDto> members = memberRepository.streamMemberDto(exportFetchSize)) {
+            for (MemberDto dto : (Iterable<MemberDto>) members::iterator) {
+                writer.write(objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * 회원 로더(BatchLoader)가 timeout 안에 응답하지 않거나 작업을 받지 않으면 기다리지 않고 503을 응답한다.
+     */
+    @ExceptionHandler({QueryTimeoutException.class, RejectedExecutionException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String busy() {
+        return "busy";
+    }
+
+    /**
+     * 경로 변수 변환(/members2/{id}) 중의 로더 timeout은 변환 실패로 감싸져서 온다.
+     * 그 외(숫자가 아닌 id 등)는 다시 던져서 기본 처리(400)에 맡긴다.
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String conversionFailed(MethodArgumentTypeMismatchException e) {
+        if (e.contains(QueryTimeoutException.class) || e.contains(RejectedExecutionException.class)) {
+            return busy();
+        }
+        throw e;
+    }
+
+//    @PostConstruct
+    public void init() {
+        List<Member> members = IntStream.range(0, 100)
+                .mapToObj(i -> new Member("user" + i, Long.valueOf(i)))
+                .collect(Collectors.toList());
+        memberRepository.saveAllBatched(members);
     }
 }
@@ -0,0 +1,42 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.TeamDto;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    /**
+     * 팀 목록과 소속 회원
+     * 팀 페이지 1번 + 회원 페치 조인 1번 (+ 필요하면 count 1번), 페이지 크기와 관계없이 쿼리 수가 일정하다.
+     */
+    @GetMapping("/teams")
+    @Transactional(readOnly = true)
+    public Page<TeamDto> list(@PageableDefault(size = 5) Pageable pageable) {
+        Page<Team> page = teamRepository.findAll(pageable);
+
+        List<Long> ids = page.getContent().stream()
+                .map(Team::getId)
+                .collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            // 같은 영속성 컨텍스트의 팀 엔티티에 members 컬렉션이 채워진다.
+            teamRepository.findWithMembersByIdIn(ids);
+        }
+
+        return page.map(TeamDto::new);
+    }
+}
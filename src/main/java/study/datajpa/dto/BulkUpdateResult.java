@@ -0,0 +1,42 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 청크 단위 벌크 수정 결과
+ */
+@Getter
+@ToString
+public class BulkUpdateResult {
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private long totalRows;
+
+    public void add(Chunk chunk) {
+        chunks.add(chunk);
+        totalRows += chunk.getRows();
+    }
+
+    public List<Chunk> getChunks() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    @Getter
+    @ToString
+    public static class Chunk {
+        private final long fromId;
+        private final long toId;
+        private final int rows;
+
+        public Chunk(long fromId, long toId, int rows) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.rows = rows;
+        }
+    }
+}
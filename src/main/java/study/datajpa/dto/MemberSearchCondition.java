@@ -0,0 +1,20 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 회원 검색 조건, 값이 없는(null, 빈 문자열) 조건은 무시한다.
+ */
+@Data
+@NoArgsConstructor
+public class MemberSearchCondition {
+
+    private String username;
+    private String teamName;
+
+    public MemberSearchCondition(String username, String teamName) {
+        this.username = username;
+        this.teamName = teamName;
+    }
+}
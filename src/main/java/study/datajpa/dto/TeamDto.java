@@ -0,0 +1,22 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+import study.datajpa.entity.Team;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Data
+public class TeamDto {
+    private Long id;
+    private String name;
+    private List<MemberDto> members;
+
+    public TeamDto(Team t) {
+        this.id = t.getId();
+        this.name = t.getName();
+        this.members = t.getMembers().stream()
+                .map(MemberDto::new)
+                .collect(Collectors.toList());
+    }
+}
@@ -4,6 +4,9 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
@@ -13,20 +16,34 @@ import javax.persistence.*;
 @ToString(of = {"id", "username", "age"})
 @NamedQuery(
         name="Member.findByUsername",
-        query="select m from Member m where m.username = :username"
+        query="select m from Member m where m.username = :username",
+        hints = {
+                @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+                @QueryHint(name = "org.hibernate.cacheRegion", value = "query.member.username")
+        }
 )
 @NamedEntityGraph(
         name = "Member.all",
         attributeNodes = @NamedAttributeNode("team")
 )
+@SequenceGenerator(
+        name = "member_seq_generator",
+        sequenceName = "member_seq",
+        allocationSize = 50 // pooled 옵티마이저로 시퀀스를 50개씩 미리 할당받는다.
+)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Member extends BaseEntity {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
     @Column(name = "member_id")
     private Long id;
     private String username;
     private Long age;
 
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -40,9 +57,19 @@ public class Member extends BaseEntity {
         this.age = age;
     }
 
+    /**
+     * 연관관계 편의 메서드, 여러 번 호출해도 members에 중복으로 들어가지 않는다.
+     * 바이트코드 보강(association management)이 같은 처리를 해도 결과가 같다.
+     * 이전 팀의 members는 이미 로딩된 경우에만 정리한다. (로딩되지 않았으면 다음 조회 때 DB 기준으로 채워진다.)
+     */
     public void changeTeam(Team team) {
+        if (this.team != null && Hibernate.isInitialized(this.team) && Hibernate.isInitialized(this.team.getMembers())) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
-        this.team.getMembers().add(this);
+        if (team != null && (!Hibernate.isInitialized(team.getMembers()) || !team.getMembers().contains(this))) {
+            team.getMembers().add(this);
+        }
     }
 
     public void changeUsername(String username) {
@@ -1,6 +1,9 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -11,15 +14,29 @@ import java.util.List;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@SequenceGenerator(
+        name = "team_seq_generator",
+        sequenceName = "team_seq",
+        allocationSize = 50
+)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
     @Column(name="team_id")
     private Long id;
     private String name;
 
+    @Version
+    private Long version;
+
+    /**
+     * 연관관계의 주인이 아니므로 버전을 올리지 않는다. (같은 팀으로 동시에 이동하는 회원끼리 충돌하지 않게)
+     */
     @OneToMany(mappedBy = "team")
+    @OptimisticLock(excluded = true)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
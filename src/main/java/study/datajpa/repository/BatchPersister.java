@@ -0,0 +1,45 @@
+package study.datajpa.repository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량 저장
+ * batch_size 단위로 persist 후 flush 해서 JDBC 배치로 INSERT 하고, 이번에 저장한 엔티티만 detach 한다.
+ * em.clear()와 달리 호출한 쪽이 이미 관리하던 엔티티는 영속 상태 그대로 남는다.
+ */
+final class BatchPersister {
+
+    private BatchPersister() {
+    }
+
+    /**
+     * @param em 엔티티 매니저 (트랜잭션 안에서 호출)
+     * @param entities 저장할 엔티티
+     * @param batchSize flush 단위
+     * @return 저장한 개수
+     */
+    static long persistAll(EntityManager em, Iterable<?> entities, int batchSize) {
+        List<Object> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        for (Object entity : entities) {
+            em.persist(entity);
+            batch.add(entity);
+            count++;
+            if (batch.size() == batchSize) {
+                flushAndDetach(em, batch);
+            }
+        }
+        flushAndDetach(em, batch);
+        return count;
+    }
+
+    private static void flushAndDetach(EntityManager em, List<Object> batch) {
+        em.flush();
+        for (Object entity : batch) {
+            em.detach(entity);
+        }
+        batch.clear();
+    }
+}
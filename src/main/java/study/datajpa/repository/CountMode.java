@@ -0,0 +1,29 @@
+package study.datajpa.repository;
+
+/**
+ * 페이징 시 전체 개수(count)를 구하는 방식
+ */
+public enum CountMode {
+
+    /**
+     * 매번 count 쿼리를 실행한다. (기본)
+     */
+    EXACT,
+
+    /**
+     * count 쿼리를 실행하지 않고 size + 1 개를 조회해서 다음 페이지 존재 여부만 판단한다. (Slice)
+     */
+    NONE,
+
+    /**
+     * 조건별 count 결과를 TTL 동안 캐시한다. 캐시된 동안 전체 개수는 조금 늦게 반영될 수 있다.
+     */
+    CACHED,
+
+    /**
+     * count 쿼리를 별도 스레드(별도 커넥션)에서 내용 조회와 동시에 실행한다.
+     * 트랜잭션 안에서 호출하면 다른 스레드는 그 트랜잭션을 볼 수 없으므로 EXACT 처럼 같은 트랜잭션에서 차례로 센다.
+     * count는 datajpa.paging.count-timeout 까지만 기다린다.
+     */
+    PARALLEL
+}
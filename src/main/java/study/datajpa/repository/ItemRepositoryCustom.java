@@ -0,0 +1,18 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * 대량 upsert
+     * save()는 식별자가 직접 할당된 Item을 merge하면서 매번 SELECT를 날리지만,
+     * 이 메서드는 조회 없이 batch_size 단위로 MERGE 문 하나씩만 실행한다.
+     * 이미 있는 Item은 그대로 두고(createdDate 유지), 없는 Item만 INSERT 한다.
+     * @param items 저장할 아이템
+     * @return 새로 INSERT 된 개수
+     */
+    int upsertAll(List<Item> items);
+}
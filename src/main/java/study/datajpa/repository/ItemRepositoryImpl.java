@@ -0,0 +1,55 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private final EntityManager em;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public int upsertAll(List<Item> items) {
+        LocalDateTime now = LocalDateTime.now();
+        int inserted = 0;
+        for (int from = 0; from < items.size(); from += batchSize) {
+            List<Item> chunk = items.subList(from, Math.min(from + batchSize, items.size()));
+            inserted += merge(chunk, now);
+        }
+        return inserted;
+    }
+
+    private int merge(List<Item> chunk, LocalDateTime now) {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) {
+                source.append(" union all ");
+            }
+            source.append("select cast(? as varchar(255)) id, cast(? as timestamp) created_date");
+        }
+
+        Query query = em.createNativeQuery("merge into item t using (" + source + ") s on (t.id = s.id)" +
+                " when not matched then insert (id, created_date) values (s.id, s.created_date)");
+        // 네이티브 쿼리는 기본으로 2차 캐시 전체를 비우므로, 영향 받는 엔티티를 Item으로 한정한다.
+        query.unwrap(NativeQuery.class).addSynchronizedEntityClass(Item.class);
+
+        int position = 1;
+        for (Item item : chunk) {
+            query.setParameter(position++, item.getId());
+            query.setParameter(position++, now);
+        }
+        return query.executeUpdate();
+    }
+}
@@ -0,0 +1,161 @@
+package study.datajpa.repository;
+
+import org.hibernate.Session;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.BulkUpdateResult;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 청크 단위 벌크 수정
+ * member_id 범위를 chunkSize 씩 나눠서 청크마다 별도 트랜잭션으로 커밋하므로 락을 오래 잡지 않는다.
+ * MemberRepository.bulkAgePlus(clearAutomatically)처럼 영속성 컨텍스트 전체를 비우지 않고,
+ * 실제로 수정된 회원만 호출한 쪽의 영속성 컨텍스트와 2차 캐시에서 제거하고, 쿼리 캐시는 member 테이블을 사용하는 결과만 무효화한다.
+ * 청크 트랜잭션은 호출한 트랜잭션과 다른 커넥션을 쓴다. 호출한 쓰기 트랜잭션이 같은 회원을 수정(flush)한 상태라면
+ * 청크가 그 락을 기다리고 호출한 트랜잭션은 청크를 기다리므로, 쓰기 트랜잭션 안에서는 호출할 수 없다. (읽기 전용은 가능)
+ */
+@Repository
+public class MemberBulkUpdater {
+
+    private final EntityManager em;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public MemberBulkUpdater(EntityManager em, PlatformTransactionManager transactionManager,
+                             @Value("${datajpa.bulk.chunk-size:1000}") int chunkSize) {
+        this.em = em;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkUpdateResult bulkAgePlus(Long age) {
+        return bulkAgePlus(age, chunkSize);
+    }
+
+    /**
+     * age 이상인 회원의 나이를 1 올린다.
+     * @param age 나이
+     * @param chunkSize 청크 하나의 member_id 범위
+     * @return 청크별 수정된 row 수
+     * @throws IllegalStateException 읽기 전용이 아닌 트랜잭션 안에서 호출한 경우
+     */
+    public BulkUpdateResult bulkAgePlus(Long age, int chunkSize) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("쓰기 트랜잭션 안에서는 청크 단위 벌크 수정을 할 수 없습니다. (청크 트랜잭션과 락 교착)");
+        }
+        Session caller = TransactionSynchronizationManager.isActualTransactionActive() ? em.unwrap(Session.class) : null;
+
+        Object[] range = (Object[]) em.createQuery("select min(m.id), max(m.id) from Member m").getSingleResult();
+        BulkUpdateResult result = new BulkUpdateResult();
+        if (range[0] == null) {
+            return result;
+        }
+
+        long max = (Long) range[1];
+        for (long start = (Long) range[0]; start <= max; start += chunkSize) {
+            long from = start;
+            long to = Math.min(start + chunkSize - 1, max);
+            ChunkUpdate chunk = chunkTransaction.execute(status -> updateChunk(age, from, to));
+            evict(caller, chunk.ids);
+            result.add(new BulkUpdateResult.Chunk(from, to, chunk.rows));
+        }
+        return result;
+    }
+
+    /**
+     * 조회와 수정 사이에 다른 트랜잭션이 나이를 바꿀 수 있으므로 수정할 때도 조건을 다시 확인한다.
+     * ids는 무효화 대상(조회 시점 기준, 실제 수정된 회원을 포함한다), rows는 실제 수정된 row 수이다.
+     */
+    private ChunkUpdate updateChunk(Long age, long from, long to) {
+        List<Long> ids = em.createQuery("select m.id from Member m" +
+                        " where m.age >= :age and m.id between :from and :to", Long.class)
+                .setParameter("age", age)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return new ChunkUpdate(ids, 0);
+        }
+
+        invalidateMemberQueries();
+        int rows = em.createNativeQuery("update member set age = age + 1, version = version + 1" +
+                        " where member_id in (:ids) and age >= :age")
+                .setParameter("ids", ids)
+                .setParameter("age", age)
+                .unwrap(NativeQuery.class)
+                // 빈 query space를 지정해서 하이버네이트가 2차 캐시 영역 전체를 비우지 않게 한다.
+                // (member를 지정하면 Member 엔티티 영역 전체도 비운다.) 무효화는 invalidateMemberQueries(), evict()에서 직접 한다.
+                .addSynchronizedQuerySpace("")
+                .executeUpdate();
+        return new ChunkUpdate(ids, rows);
+    }
+
+    /**
+     * member 테이블의 수정 시각만 갱신해서 그 테이블을 사용하는 쿼리 캐시 결과만 무효화한다.
+     * 하이버네이트가 벌크 수정에 하는 것과 같이 수정 전에 preInvalidate, 청크 트랜잭션이 끝난 뒤 invalidate 한다.
+     */
+    private void invalidateMemberQueries() {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        SessionFactoryImplementor factory = session.getFactory();
+        if (!factory.getSessionFactoryOptions().isQueryCacheEnabled()) {
+            return;
+        }
+
+        String[] spaces = (String[]) factory.getMetamodel().entityPersister(Member.class).getQuerySpaces();
+        TimestampsCache timestamps = factory.getCache().getTimestampsCache();
+        timestamps.preInvalidate(spaces, session);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                timestamps.invalidate(spaces, session);
+            }
+        });
+    }
+
+    private void evict(Session caller, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        if (caller != null) {
+            SessionImplementor session = caller.unwrap(SessionImplementor.class);
+            EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+            for (Long id : ids) {
+                Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+                if (managed != null) {
+                    caller.detach(managed);
+                }
+            }
+        }
+
+        org.hibernate.Cache cache = em.getEntityManagerFactory().getCache().unwrap(org.hibernate.Cache.class);
+        for (Long id : ids) {
+            cache.evictEntityData(Member.class, id);
+        }
+    }
+
+    private static class ChunkUpdate {
+        private final List<Long> ids;
+        private final int rows;
+
+        private ChunkUpdate(List<Long> ids, int rows) {
+            this.ids = ids;
+            this.rows = rows;
+        }
+    }
+}
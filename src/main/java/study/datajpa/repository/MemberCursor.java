@@ -0,0 +1,110 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import study.datajpa.dto.CursorPage;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+
+import javax.persistence.TypedQuery;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 키셋(seek) 페이징에서 사용하는 커서
+ * 정렬 기준은 username desc, member_id asc 이며, 마지막으로 읽은 회원의 (username, id)를 담는다.
+ * username이 null인 회원은 DB와 관계없이 맨 뒤에 온다. (nulls last)
+ * 외부에는 Base64 문자열로 인코딩한 불투명(opaque) 토큰으로만 노출한다.
+ * 토큰은 "id:username" 이고, username이 null이면 구분자 없이 "id" 만 쓴다.
+ */
+@Getter
+public class MemberCursor {
+
+    /**
+     * 키셋 페이징 정렬, 회원 별칭은 m
+     */
+    public static final String ORDER_BY = " order by m.username desc nulls last, m.id asc";
+
+    private static final String SEPARATOR = ":";
+
+    private final Long id;
+    private final String username;
+
+    public MemberCursor(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getId(), member.getUsername());
+    }
+
+    public static MemberCursor of(MemberDto dto) {
+        return new MemberCursor(dto.getId(), dto.getUsername());
+    }
+
+    /**
+     * 토큰을 커서로 복원한다. 비어 있으면 첫 페이지를 의미하므로 null을 반환한다.
+     * @param token 인코딩된 커서
+     * @return MemberCursor
+     */
+    public static MemberCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(SEPARATOR);
+            if (idx < 0) {
+                return new MemberCursor(Long.valueOf(raw), null);
+            }
+            return new MemberCursor(Long.valueOf(raw.substring(0, idx)), raw.substring(idx + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다. cursor = " + token, e);
+        }
+    }
+
+    /**
+     * limit + 1 개를 조회한 결과로 페이지를 만든다. 초과분이 있으면 다음 페이지가 존재한다.
+     * @param rows limit + 1 개까지 조회한 결과
+     * @param limit 페이지 크기
+     * @return CursorPage
+     */
+    public static CursorPage<Member> toPage(List<Member> rows, int limit) {
+        return toPage(rows, limit, MemberCursor::of);
+    }
+
+    public static <T> CursorPage<T> toPage(List<T> rows, int limit, Function<T, MemberCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+
+        List<T> content = rows.subList(0, limit);
+        return new CursorPage<>(content, cursorOf.apply(content.get(limit - 1)).encode());
+    }
+
+    /**
+     * 커서 이후의 회원을 고르는 조건, 회원 별칭은 m
+     * 파라미터는 bind로 채운다.
+     */
+    public String predicate() {
+        if (username == null) {
+            return "(m.username is null and m.id > :id)";
+        }
+        return "(m.username < :username or (m.username = :username and m.id > :id) or m.username is null)";
+    }
+
+    public <T> TypedQuery<T> bind(TypedQuery<T> query) {
+        if (username != null) {
+            query.setParameter("username", username);
+        }
+        return query.setParameter("id", id);
+    }
+
+    public String encode() {
+        String raw = username == null ? String.valueOf(id) : id + SEPARATOR + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,10 +1,13 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import study.datajpa.dto.CursorPage;
 import study.datajpa.entity.Member;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,11 +17,25 @@ public class MemberJpaRepository {
 
     private final EntityManager em;
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
     }
 
+    /**
+     * 대량 저장
+     * batch_size 단위로 flush 해서 JDBC 배치로 INSERT 하고, 저장한 엔티티만 detach 한다. (BatchPersister)
+     * 저장이 끝난 엔티티는 준영속 상태가 되므로 반환하지 않는다.
+     * @param members 저장할 회원
+     * @return 저장한 개수
+     */
+    public long saveAllBatched(Iterable<Member> members) {
+        return BatchPersister.persistAll(em, members, batchSize);
+    }
+
     public Member find(Long id) {
         return em.find(Member.class, id);
     }
@@ -68,6 +85,33 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
+    /**
+     * 키셋(seek) 페이징 처리
+     * offset 대신 마지막으로 읽은 (username, id) 이후부터 조회하므로 앞 페이지를 버리지 않는다.
+     * @param age 나이
+     * @param cursor 이전 페이지의 nextCursor (첫 페이지는 null 또는 빈 문자열)
+     * @param limit 개수
+     * @return CursorPage
+     */
+    public CursorPage<Member> findByPageAfter(Long age, String cursor, int limit) {
+        MemberCursor after = MemberCursor.decode(cursor);
+
+        TypedQuery<Member> query;
+        if (after == null) {
+            query = em.createQuery("select m from Member m where m.age = :age" +
+                    MemberCursor.ORDER_BY, Member.class);
+        } else {
+            query = after.bind(em.createQuery("select m from Member m where m.age = :age" +
+                    " and " + after.predicate() +
+                    MemberCursor.ORDER_BY, Member.class));
+        }
+
+        List<Member> rows = query.setParameter("age", age)
+                .setMaxResults(limit + 1) // 다음 페이지 존재 여부 확인용으로 하나 더 가져온다.
+                .getResultList();
+        return MemberCursor.toPage(rows, limit);
+    }
+
     public long totalCount(Long age) {
         return em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
                 .setParameter("age", age)
@@ -80,7 +124,7 @@ public class MemberJpaRepository {
      * @return int
      */
     public int bulkAgePlus(Long age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        return em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
     }
@@ -5,6 +5,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
@@ -14,12 +15,13 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, MemberSearchRepository, JpaSpecificationExecutor<Member> {
 
     List<Member> findByUsernameAndAgeGreaterThan(String username, Long age);
 
     /**
      * 엔티티에 정의된 NamedQuery를 직접 가져온다.
+     * NamedQuery에 쿼리 캐시 힌트가 정의되어 있다.
      * @param username 이름
      * @return List Member
      */
@@ -45,19 +47,57 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
+    /**
+     * findMemberDto의 페이징 버전
+     * 엔티티를 거치지 않고 한 번의 조인 쿼리로 DTO를 만들며, 카운트는 조인 없이 회원 수만 센다.
+     * @param pageable
+     * @return Page MemberDto
+     */
+    @Query(value = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t",
+            countQuery = "select count(m) from Member m")
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
+    /**
+     * MemberDtoCache가 캐시에 없을 때 사용한다. 동시 요청의 id를 모아서 한 번에 조회한다. (BatchLoaderConfig)
+     */
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t where m.id in :ids")
+    List<MemberDto> findMemberDtoByIdIn(@Param("ids") Collection<Long> ids);
+
 
+    /**
+     * 쿼리 캐시 사용, 2차 캐시가 켜져 있을 때만 동작하며 Member 테이블이 바뀌면 자동으로 무효화된다.
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "query.member.names")
+    })
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "query.member.username")
+    })
     List<Member> findListByUsername(String username); // 컬렉션
     Member findMemberByUsername(String username); // 단건
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "query.member.username")
+    })
     Optional<Member> findOptionalByUsername(String username); // 단건 Optional
 
-    @Query(value = "select m from Member m left join m.team t", countQuery = "select count(m.username) from Member m")
-    Page<Member> findByAge(Long age, Pageable pageable);
+    @Query(value = "select m from Member m left join m.team t where m.age = :age",
+            countQuery = "select count(m) from Member m where m.age = :age")
+    Page<Member> findByAge(@Param("age") Long age, Pageable pageable);
+
+    /**
+     * count 쿼리 없이 size + 1 개를 조회해서 다음 페이지 여부만 판단한다.
+     */
+    @Query("select m from Member m left join m.team t where m.age = :age")
+    Slice<Member> findSliceByAge(@Param("age") Long age, Pageable pageable);
 
     @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
     int bulkAgePlus(@Param("age") Long age);
 
     /**
@@ -104,6 +144,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * @param username
      * @return
      */
+    @Transactional(readOnly = true)
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
     Member findReadOnlyByUsername(String username);
 
@@ -113,8 +154,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
 
-    <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> type);
-
     /**
      * 네이티브 쿼리 사용
      * @param username
@@ -129,7 +168,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * @return
      */
     @Query(value = "select m.member_id as id, m.username, t.name as teamName " +
-            "from member m left join team t",
+            "from member m left join team t on m.team_id = t.team_id",
             countQuery = "select count(*) from member",
             nativeQuery = true
     )
@@ -1,9 +1,76 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.datajpa.dto.CursorPage;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    /**
+     * 대량 저장, batch_size 단위로 flush 하고 저장한 회원만 detach 한다.
+     * 같은 트랜잭션에서 이미 관리하던 엔티티는 영속 상태로 남는다.
+     * @param members 저장할 회원
+     * @return 저장한 개수
+     */
+    long saveAllBatched(Iterable<Member> members);
+
+    /**
+     * username desc, id asc 순서의 키셋 페이징
+     * @param cursor 이전 페이지의 nextCursor (첫 페이지는 null 또는 빈 문자열)
+     * @param limit 개수
+     * @return CursorPage
+     */
+    CursorPage<Member> findAllByCursor(String cursor, int limit);
+
+    /**
+     * findAllByCursor의 DTO 버전, 팀과 조인해서 한 번의 쿼리로 MemberDto를 만든다.
+     * @param cursor 이전 페이지의 nextCursor (첫 페이지는 null 또는 빈 문자열)
+     * @param limit 개수
+     * @return CursorPage
+     */
+    CursorPage<MemberDto> findMemberDtoByCursor(String cursor, int limit);
+
+    /**
+     * MemberDto 페이징, count 방식을 요청마다 고를 수 있다.
+     * @param age 나이 조건 (null 이면 전체)
+     * @param pageable 페이지 정보
+     * @param countMode count 방식
+     * @return NONE 이면 Slice, 나머지는 Page
+     */
+    Slice<MemberDto> searchMemberDto(Long age, Pageable pageable, CountMode countMode);
+
+    /**
+     * 전체 회원을 MemberDto로 스트리밍 조회한다.
+     * 결과 집합을 한 번에 올리지 않고 fetchSize 단위로 커서를 넘기며, 엔티티를 만들지 않으므로
+     * 영속성 컨텍스트도 커지지 않는다. 트랜잭션 안에서 사용하고 다 쓰면 반드시 close 해야 한다.
+     * @param fetchSize JDBC fetch size
+     * @return Stream MemberDto
+     */
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    /**
+     * 동적 Projection, 인터페이스 Projection은 필요한 컬럼만 조회한다.
+     * 열린 Projection의 @Value SpEL이 문자열 연결, 사칙연산이면 select 절에서 계산하고, 그 외에는 엔티티를 조회해서 계산한다.
+     * @param username 회원 이름
+     * @param type 엔티티, DTO 클래스 또는 Projection 인터페이스
+     * @return List T
+     */
+    <T> List<T> findProjectionsByUsername(String username, Class<T> type);
+
+    /**
+     * 작업 선점(claim), 다른 트랜잭션이 잠근 회원은 기다리지 않고 건너뛴다. (FOR UPDATE SKIP LOCKED)
+     * 여러 워커가 동시에 호출해도 서로 다른 회원을 가져가며, 잠금은 호출한 트랜잭션이 끝날 때까지 유지된다.
+     * SKIP LOCKED를 렌더링하는 방언(PostgreSQL 9.5+, MySQL 8, Oracle, SQL Server)에서만 동작한다.
+     * H2 등 지원하지 않는 방언에서는 일반 FOR UPDATE로 워커끼리 순서대로 대기하게 되므로 UnsupportedOperationException을 던진다.
+     * @param age 나이
+     * @param pageable 가져올 개수
+     * @return 잠근 회원
+     */
+    List<Member> claimByAge(Long age, Pageable pageable);
 }
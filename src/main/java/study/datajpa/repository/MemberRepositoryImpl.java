@@ -1,19 +1,160 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.LockOptions;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.CursorPage;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.projection.GeneratedProjectionFactory;
+import study.datajpa.repository.projection.ProjectionPlan;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
-public class MemberRepositoryImpl implements MemberRepositoryCustom{
+public class MemberRepositoryImpl implements MemberRepositoryCustom, BeanFactoryAware {
 
     private final EntityManager em;
+    private final PageCounter pageCounter;
+    private final GeneratedProjectionFactory projectionFactory = new GeneratedProjectionFactory();
+    private final Map<Class<?>, ProjectionPlan<?>> projectionPlans = new ConcurrentHashMap<>();
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        // 열린 Projection SpEL의 @bean 참조
+        projectionFactory.setBeanFactory(beanFactory);
+    }
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    @Override
+    @Transactional
+    public long saveAllBatched(Iterable<Member> members) {
+        return BatchPersister.persistAll(em, members, batchSize);
+    }
+
+    @Override
+    public CursorPage<Member> findAllByCursor(String cursor, int limit) {
+        MemberCursor after = MemberCursor.decode(cursor);
+
+        TypedQuery<Member> query;
+        if (after == null) {
+            query = em.createQuery("select m from Member m" + MemberCursor.ORDER_BY, Member.class);
+        } else {
+            query = after.bind(em.createQuery("select m from Member m" +
+                    " where " + after.predicate() +
+                    MemberCursor.ORDER_BY, Member.class));
+        }
+
+        List<Member> rows = query.setMaxResults(limit + 1).getResultList();
+        return MemberCursor.toPage(rows, limit);
+    }
+
+    @Override
+    public CursorPage<MemberDto> findMemberDtoByCursor(String cursor, int limit) {
+        MemberCursor after = MemberCursor.decode(cursor);
+
+        TypedQuery<MemberDto> query;
+        if (after == null) {
+            query = em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                    " from Member m left join m.team t" +
+                    MemberCursor.ORDER_BY, MemberDto.class);
+        } else {
+            query = after.bind(em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                    " from Member m left join m.team t" +
+                    " where " + after.predicate() +
+                    MemberCursor.ORDER_BY, MemberDto.class));
+        }
+
+        List<MemberDto> rows = query.setMaxResults(limit + 1).getResultList();
+        return MemberCursor.toPage(rows, limit, MemberCursor::of);
+    }
+
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        return em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                        " from Member m left join m.team t order by m.id", MemberDto.class)
+                .setHint("org.hibernate.fetchSize", fetchSize)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream();
+    }
+
+    @Override
+    public Slice<MemberDto> searchMemberDto(Long age, Pageable pageable, CountMode countMode) {
+        String where = age == null ? "" : " where m.age = :age";
+        String contentQuery = QueryUtils.applySorting("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)" +
+                " from Member m left join m.team t" + where, pageable.getSort(), "m");
+
+        return pageCounter.execute(pageable, countMode, "member.age=" + age,
+                maxResults -> {
+                    TypedQuery<MemberDto> query = em.createQuery(contentQuery, MemberDto.class)
+                            .setFirstResult((int) pageable.getOffset())
+                            .setMaxResults(maxResults);
+                    if (age != null) {
+                        query.setParameter("age", age);
+                    }
+                    return query.getResultList();
+                },
+                () -> {
+                    // 카운트는 팀 조인이 필요 없다.
+                    TypedQuery<Long> query = em.createQuery("select count(m) from Member m" + where, Long.class);
+                    if (age != null) {
+                        query.setParameter("age", age);
+                    }
+                    return query.getSingleResult();
+                });
+    }
+
+    @Override
+    public <T> List<T> findProjectionsByUsername(String username, Class<T> type) {
+        // Projection 타입마다 select 절과 행 변환 방법을 한 번만 만든다.
+        @SuppressWarnings("unchecked")
+        ProjectionPlan<T> plan = (ProjectionPlan<T>) projectionPlans.computeIfAbsent(type,
+                key -> ProjectionPlan.create(key, em.getMetamodel().entity(Member.class), projectionFactory));
+        List<?> rows = em.createQuery(plan.getQuery() + " where m.username = :username")
+                .setParameter("username", username)
+                .getResultList();
+        return plan.map(rows);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Member> claimByAge(Long age, Pageable pageable) {
+        Dialect dialect = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        if (!dialect.supportsSkipLocked()) {
+            throw new UnsupportedOperationException("SKIP LOCKED를 지원하지 않는 방언입니다. dialect = " + dialect);
+        }
+
+        return em.createQuery("select m from Member m where m.age >= :age order by m.id", Member.class)
+                .setParameter("age", age)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint("javax.persistence.lock.timeout", LockOptions.SKIP_LOCKED)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
 }
@@ -0,0 +1,18 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+
+public interface MemberSearchRepository {
+
+    /**
+     * MemberSpec(username, teamName) 조합과 같은 검색을 캐시된 JPQL로 실행한다.
+     * @param condition 검색 조건
+     * @param pageable 페이지 정보 (정렬은 id, username, age 중 2개까지)
+     * @return Page Member
+     * @throws IllegalArgumentException 허용하지 않는 정렬 (리포지토리 밖으로는 InvalidDataAccessApiUsageException)
+     */
+    Page<Member> search(MemberSearchCondition condition, Pageable pageable);
+}
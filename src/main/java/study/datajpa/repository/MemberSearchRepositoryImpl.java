@@ -0,0 +1,112 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Specification은 호출마다 Criteria 트리를 새로 만들고, 하이버네이트가 이를 매번 JPQL로 렌더링해서 해석한다.
+ * 여기서는 조건 조합을 "어떤 조건이 있는가"(query shape)로 정규화하고, shape + 정렬마다 JPQL 문자열을 한 번만 만든다.
+ * 같은 문자열은 하이버네이트 QueryPlanCache에서 해석 결과를 재사용하므로, 호출마다 파라미터 바인딩만 새로 한다.
+ * count 쿼리는 조건에 필요할 때만 팀과 조인한다.
+ * 정렬은 요청 파라미터에서 오므로 SORTABLE 속성, MAX_ORDERS 개까지만 허용해서 캐시 크기를 제한한다.
+ */
+@RequiredArgsConstructor
+public class MemberSearchRepositoryImpl implements MemberSearchRepository {
+
+    private static final Set<String> SORTABLE = new HashSet<>(Arrays.asList("id", "username", "age"));
+    private static final int MAX_ORDERS = 2;
+
+    private final EntityManager em;
+    private final Map<String, CompiledQuery> queries = new ConcurrentHashMap<>();
+
+    @Override
+    public Page<Member> search(MemberSearchCondition condition, Pageable pageable) {
+        validateSort(pageable.getSort());
+        boolean hasUsername = StringUtils.hasText(condition.getUsername());
+        boolean hasTeamName = StringUtils.hasText(condition.getTeamName());
+
+        String shape = (hasUsername ? "username," : "") + (hasTeamName ? "teamName," : "") + pageable.getSort();
+        CompiledQuery compiled = queries.computeIfAbsent(shape, key -> compile(hasUsername, hasTeamName, pageable));
+
+        TypedQuery<Member> contentQuery = em.createQuery(compiled.content, Member.class);
+        bind(contentQuery, condition, hasUsername, hasTeamName);
+        List<Member> content = contentQuery
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            TypedQuery<Long> countQuery = em.createQuery(compiled.count, Long.class);
+            bind(countQuery, condition, hasUsername, hasTeamName);
+            return countQuery.getSingleResult();
+        });
+    }
+
+    /**
+     * @throws IllegalArgumentException 허용하지 않는 정렬 속성이거나 정렬 조건이 너무 많은 경우
+     */
+    private static void validateSort(Sort sort) {
+        if (sort.stream().count() > MAX_ORDERS) {
+            throw new IllegalArgumentException("정렬 조건은 " + MAX_ORDERS + "개까지 사용할 수 있습니다. sort = " + sort);
+        }
+        for (Sort.Order order : sort) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new IllegalArgumentException("정렬할 수 없는 속성입니다. property = " + order.getProperty());
+            }
+        }
+    }
+
+    private static CompiledQuery compile(boolean hasUsername, boolean hasTeamName, Pageable pageable) {
+        StringBuilder from = new StringBuilder(" from Member m");
+        if (hasTeamName) {
+            from.append(" join m.team t"); // 회원과 조인, 팀 조건이 없으면 조인하지 않는다.
+        }
+
+        StringBuilder where = new StringBuilder();
+        if (hasUsername) {
+            where.append(" where m.username = :username");
+        }
+        if (hasTeamName) {
+            where.append(hasUsername ? " and" : " where").append(" t.name = :teamName");
+        }
+
+        String content = QueryUtils.applySorting("select m" + from + where, pageable.getSort(), "m");
+        String count = "select count(m)" + from + where;
+        return new CompiledQuery(content, count);
+    }
+
+    private static void bind(TypedQuery<?> query, MemberSearchCondition condition, boolean hasUsername, boolean hasTeamName) {
+        if (hasUsername) {
+            query.setParameter("username", condition.getUsername());
+        }
+        if (hasTeamName) {
+            query.setParameter("teamName", condition.getTeamName());
+        }
+    }
+
+    private static class CompiledQuery {
+        private final String content;
+        private final String count;
+
+        private CompiledQuery(String content, String count) {
+            this.content = content;
+            this.count = count;
+        }
+    }
+}
@@ -7,6 +7,9 @@ import study.datajpa.entity.Team;
 
 import javax.persistence.criteria.*;
 
+/**
+ * 반복 호출이 많은 검색은 같은 조건을 캐시된 JPQL로 실행하는 MemberRepository.search(MemberSearchCondition, Pageable)를 사용한다.
+ */
 public class MemberSpec {
 
     public static Specification<Member> teamName(final String teamName) {
@@ -0,0 +1,116 @@
+package study.datajpa.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * CountMode에 따라 내용 조회와 count 쿼리를 조합해서 Page 또는 Slice를 만든다.
+ */
+@Component
+public class PageCounter {
+
+    private static final int MAX_CACHED_TOTALS = 10_000;
+
+    private final Cache<String, Long> totals;
+    private final Duration countTimeout;
+    private final ExecutorService countExecutor;
+
+    public PageCounter(@Value("${datajpa.paging.count-cache-ttl:30s}") Duration ttl,
+                       @Value("${datajpa.paging.count-threads:4}") int countThreads,
+                       @Value("${datajpa.paging.count-timeout:5s}") Duration countTimeout) {
+        this.totals = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_TOTALS)
+                .expireAfterWrite(ttl)
+                .build();
+        this.countTimeout = countTimeout;
+        this.countExecutor = Executors.newFixedThreadPool(countThreads);
+    }
+
+    /**
+     * @param pageable 페이지 정보
+     * @param mode count 방식
+     * @param countKey 캐시 키, 쿼리와 조건 값이 모두 들어가야 한다.
+     * @param content 최대 개수를 받아서 내용을 조회하는 함수
+     * @param count count 쿼리
+     * @return NONE 이면 Slice, 나머지는 Page
+     */
+    public <T> Slice<T> execute(Pageable pageable, CountMode mode, String countKey,
+                                IntFunction<List<T>> content, LongSupplier count) {
+        int size = pageable.getPageSize();
+        switch (mode) {
+            case NONE: {
+                List<T> rows = content.apply(size + 1);
+                boolean hasNext = rows.size() > size;
+                return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+            }
+            case CACHED:
+                return PageableExecutionUtils.getPage(content.apply(size), pageable, () -> cachedCount(countKey, count));
+            case PARALLEL: {
+                if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                    // 다른 스레드는 호출한 트랜잭션(커밋 전 변경, 읽기 전용 라우팅)을 볼 수 없으므로 같은 트랜잭션에서 센다.
+                    return PageableExecutionUtils.getPage(content.apply(size), pageable, count);
+                }
+                CompletableFuture<Long> total = CompletableFuture.supplyAsync(count::getAsLong, countExecutor);
+                List<T> rows = content.apply(size);
+                return new PageImpl<>(rows, pageable, await(total));
+            }
+            default:
+                return PageableExecutionUtils.getPage(content.apply(size), pageable, count);
+        }
+    }
+
+    private long cachedCount(String countKey, LongSupplier count) {
+        return totals.get(countKey, key -> count.getAsLong());
+    }
+
+    /**
+     * count-timeout 까지만 기다린다. count 쿼리의 예외는 감싸지 않고 그대로 던진다.
+     * @throws QueryTimeoutException 시간 안에 끝나지 않은 경우
+     */
+    private long await(CompletableFuture<Long> total) {
+        try {
+            return total.get(countTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            total.cancel(true);
+            throw new QueryTimeoutException("count 쿼리가 " + countTimeout + " 안에 끝나지 않았습니다.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        countExecutor.shutdown();
+    }
+}
@@ -1,7 +1,19 @@
 package study.datajpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import study.datajpa.entity.Team;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    /**
+     * 팀과 회원을 페치 조인해서 members 컬렉션을 한 번에 초기화한다.
+     * 컬렉션 페치 조인은 페이징할 수 없으므로, 팀 페이지를 먼저 조회한 다음 그 id로 호출한다.
+     */
+    @Query("select distinct t from Team t left join fetch t.members where t.id in :ids")
+    List<Team> findWithMembersByIdIn(@Param("ids") Collection<Long> ids);
 }
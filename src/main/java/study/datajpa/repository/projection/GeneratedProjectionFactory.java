@@ -0,0 +1,71 @@
+package study.datajpa.repository.projection;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 닫힌 인터페이스 Projection을 생성 클래스로 만드는 ProjectionFactory
+ * 열린 Projection(@Value SpEL)처럼 생성할 수 없는 타입은 기존 프록시 방식으로 만든다.
+ * 생성 클래스 캐시는 팩토리 인스턴스가 들고 있어서, 팩토리(컨텍스트)가 내려가면 생성 클래스도 같이 수거된다.
+ */
+public class GeneratedProjectionFactory extends SpelAwareProxyProjectionFactory {
+
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+    private final Map<Class<?>, Optional<ProjectionTemplate>> templates = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Optional<ProjectionTemplate>> getterTemplates = new ConcurrentHashMap<>();
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        super.setBeanFactory(beanFactory);
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T createProjection(Class<T> type, Object source) {
+        if (source == null || type.isInstance(source)) {
+            return super.createProjection(type, source);
+        }
+
+        return template(type)
+                .map(template -> (T) template.fill(source, this, conversionService))
+                .orElseGet(() -> super.createProjection(type, source));
+    }
+
+    ConversionService getConversionService() {
+        return conversionService;
+    }
+
+    /**
+     * SpEL의 @bean 참조에 사용한다. 설정되지 않았으면 null
+     */
+    BeanFactory getBeanFactory() {
+        return beanFactory;
+    }
+
+    /**
+     * 첫 조회 전에 클래스를 미리 만들어 둔다.
+     * @return 생성 클래스로 만들 수 있으면 true
+     */
+    public boolean prepare(Class<?> type) {
+        return template(type).isPresent();
+    }
+
+    Optional<ProjectionTemplate> template(Class<?> type) {
+        return templates.computeIfAbsent(type, key -> ProjectionTemplate.of(type, getProjectionInformation(type)));
+    }
+
+    /**
+     * 열린 Projection까지 포함한 생성 클래스 (ProjectionTemplate.forGetters)
+     */
+    Optional<ProjectionTemplate> getterTemplate(Class<?> type) {
+        return getterTemplates.computeIfAbsent(type, ProjectionTemplate::forGetters);
+    }
+}
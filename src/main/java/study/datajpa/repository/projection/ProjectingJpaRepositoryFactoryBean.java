@@ -0,0 +1,106 @@
+package study.datajpa.repository.projection;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.query.JpaQueryMethodFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.querydsl.EntityPathResolver;
+import org.springframework.data.querydsl.SimpleEntityPathResolver;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.lang.Nullable;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+
+/**
+ * 리포지토리의 ProjectionFactory를 GeneratedProjectionFactory로 바꾼다.
+ * 리포지토리를 만들 때 쿼리 메서드의 반환 타입에 있는 Projection 클래스를 미리 생성한다.
+ * (동적 Projection 타입 Class&lt;T&gt; 는 처음 호출할 때 생성한다.)
+ * getProjectionFactory를 바꾸려면 JpaRepositoryFactory를 직접 만들어야 해서,
+ * 부모(JpaRepositoryFactoryBean)가 팩토리에 넘기는 설정(escapeCharacter, entityPathResolver, queryMethodFactory)을 같이 받아서 넘긴다.
+ */
+public class ProjectingJpaRepositoryFactoryBean<T extends Repository<S, ID>, S, ID> extends JpaRepositoryFactoryBean<T, S, ID> {
+
+    @Value("${datajpa.projection.generated:true}")
+    private boolean generated;
+
+    private char escapeCharacter = '\\';
+    private EntityPathResolver entityPathResolver = SimpleEntityPathResolver.INSTANCE;
+    private JpaQueryMethodFactory queryMethodFactory;
+    private GeneratedProjectionFactory projectionFactory;
+
+    public ProjectingJpaRepositoryFactoryBean(Class<? extends T> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Override
+    public void setEscapeCharacter(char escapeCharacter) {
+        super.setEscapeCharacter(escapeCharacter);
+        this.escapeCharacter = escapeCharacter;
+    }
+
+    /**
+     * 부모 setter의 @Autowired는 오버라이드하면 적용되지 않아서 다시 붙인다.
+     */
+    @Override
+    @Autowired
+    public void setEntityPathResolver(ObjectProvider<EntityPathResolver> resolver) {
+        super.setEntityPathResolver(resolver);
+        this.entityPathResolver = resolver.getIfAvailable(() -> SimpleEntityPathResolver.INSTANCE);
+    }
+
+    @Override
+    @Autowired
+    public void setQueryMethodFactory(@Nullable JpaQueryMethodFactory queryMethodFactory) {
+        super.setQueryMethodFactory(queryMethodFactory);
+        if (queryMethodFactory != null) {
+            this.queryMethodFactory = queryMethodFactory;
+        }
+    }
+
+    @Override
+    protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+        if (!generated) {
+            return super.createRepositoryFactory(entityManager);
+        }
+
+        JpaRepositoryFactory factory = new JpaRepositoryFactory(entityManager) {
+            @Override
+            protected ProjectionFactory getProjectionFactory(ClassLoader classLoader, BeanFactory beanFactory) {
+                GeneratedProjectionFactory projectionFactory = new GeneratedProjectionFactory();
+                projectionFactory.setBeanClassLoader(classLoader);
+                projectionFactory.setBeanFactory(beanFactory);
+                ProjectingJpaRepositoryFactoryBean.this.projectionFactory = projectionFactory;
+                return projectionFactory;
+            }
+        };
+        factory.setEntityPathResolver(entityPathResolver);
+        factory.setEscapeCharacter(escapeCharacter);
+        if (queryMethodFactory != null) {
+            factory.setQueryMethodFactory(queryMethodFactory);
+        }
+        return factory;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (projectionFactory == null) {
+            return;
+        }
+
+        RepositoryInformation information = getRepositoryInformation();
+        for (Method method : information.getQueryMethods()) {
+            Class<?> returned = information.getReturnedDomainClass(method);
+            if (returned.isInterface() && !returned.isAssignableFrom(information.getDomainType())) {
+                projectionFactory.prepare(returned);
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package study.datajpa.repository.projection;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.data.projection.ProjectionInformation;
+
+import javax.persistence.metamodel.EntityType;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 동적 Projection(Class&lt;T&gt;) 조회 계획, select 절(JPQL)과 결과 행을 T로 바꾸는 방법을 함께 가진다.
+ * 호출하는 쪽은 getQuery() 뒤에 where 절을 붙인다. (루트 별칭 m)
+ *
+ * - 엔티티 : select m
+ * - DTO 클래스 : select new Dto(m.a, m.b) (생성자 파라미터 이름)
+ * - 인터페이스 : 프로퍼티마다 컬럼을 select, @Value SpEL은 JPQL 식으로 바꿔서 select
+ *   중첩 닫힌 Projection(team.name)도 연관 엔티티 전체가 아니라 필요한 컬럼만 select 한다.
+ * - SpEL을 JPQL로 바꿀 수 없으면 엔티티를 조회하고 컴파일된 SpEL로 계산한다.
+ */
+public abstract class ProjectionPlan<T> {
+
+    private static final SpelExpressionParser COMPILING_PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, ProjectionPlan.class.getClassLoader()));
+
+    private final String query;
+
+    private ProjectionPlan(String query) {
+        this.query = query;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public abstract List<T> map(List<?> rows);
+
+    public static <T> ProjectionPlan<T> create(Class<T> type, EntityType<?> root, GeneratedProjectionFactory factory) {
+        String entityQuery = "select " + ProjectionSelect.ROOT_ALIAS + " from " + root.getName() + " " + ProjectionSelect.ROOT_ALIAS;
+
+        if (type.isAssignableFrom(root.getJavaType())) {
+            return new ProjectionPlan<T>(entityQuery) {
+                @Override
+                public List<T> map(List<?> rows) {
+                    return castRows(rows);
+                }
+            };
+        }
+        if (!type.isInterface()) {
+            return dto(type, root);
+        }
+
+        ProjectionInformation information = factory.getProjectionInformation(type);
+        Optional<ProjectionTemplate> template = information.isClosed()
+                ? factory.template(type)
+                : factory.getterTemplate(type);
+        if (!template.isPresent()) {
+            // 생성 클래스로 만들 수 없는 타입, 스프링 데이터 프록시로 만든다.
+            return new ProjectionPlan<T>(entityQuery) {
+                @Override
+                public List<T> map(List<?> rows) {
+                    List<T> result = new ArrayList<>(rows.size());
+                    for (Object row : rows) {
+                        result.add(factory.createProjection(type, row));
+                    }
+                    return result;
+                }
+            };
+        }
+
+        ProjectionSelect select = new ProjectionSelect(root);
+        Shape shape = Shape.of(template.get(), Collections.emptyList(), select, factory);
+        if (shape == null) {
+            return evaluating(entityQuery, template.get(), factory);
+        }
+
+        return new ProjectionPlan<T>("select " + select.getSelect() + select.getFrom()) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<T> map(List<?> rows) {
+                List<T> result = new ArrayList<>(rows.size());
+                for (Object row : rows) {
+                    Object[] columns = row instanceof Object[] ? (Object[]) row : new Object[]{row};
+                    result.add((T) shape.build(columns, factory));
+                }
+                return result;
+            }
+        };
+    }
+
+    private static <T> ProjectionPlan<T> dto(Class<T> type, EntityType<?> root) {
+        Constructor<T> constructor = BeanUtils.getResolvableConstructor(type);
+        String[] names = new DefaultParameterNameDiscoverer().getParameterNames(constructor);
+        if (names == null) {
+            throw new IllegalArgumentException("생성자 파라미터 이름을 알 수 없습니다. type = " + type.getName());
+        }
+
+        ProjectionSelect select = new ProjectionSelect(root);
+        for (String name : names) {
+            if (select.addPath(Collections.singletonList(name)) < 0) {
+                throw new IllegalArgumentException("지원하지 않는 Projection 입니다. type = " + type.getName() + ", property = " + name);
+            }
+        }
+
+        return new ProjectionPlan<T>("select new " + type.getName() + "(" + select.getSelect() + ")" + select.getFrom()) {
+            @Override
+            public List<T> map(List<?> rows) {
+                return castRows(rows);
+            }
+        };
+    }
+
+    /**
+     * SpEL을 JPQL로 바꿀 수 없을 때, 엔티티를 조회해서 프로퍼티마다 컴파일된 SpEL로 값을 구한다.
+     * 스프링 데이터 프록시(SpelEvaluatingMethodInterceptor)와 같이 @bean 참조와 Map 프로퍼티 접근을 지원한다.
+     */
+    private static <T> ProjectionPlan<T> evaluating(String entityQuery, ProjectionTemplate template, GeneratedProjectionFactory factory) {
+        List<Expression> expressions = new ArrayList<>();
+        for (PropertyDescriptor descriptor : template.getDescriptors()) {
+            Value value = descriptor.getReadMethod().getAnnotation(Value.class);
+            expressions.add(value != null
+                    ? COMPILING_PARSER.parseExpression(value.value(), ParserContext.TEMPLATE_EXPRESSION)
+                    : COMPILING_PARSER.parseExpression("target." + descriptor.getName()));
+        }
+
+        return new ProjectionPlan<T>(entityQuery) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<T> map(List<?> rows) {
+                StandardEvaluationContext context = new StandardEvaluationContext();
+                context.addPropertyAccessor(new MapAccessor());
+                if (factory.getBeanFactory() != null) {
+                    context.setBeanResolver(new BeanFactoryResolver(factory.getBeanFactory()));
+                }
+
+                List<T> result = new ArrayList<>(rows.size());
+                for (Object row : rows) {
+                    Target target = new Target(row);
+                    Object[] values = new Object[expressions.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = expressions.get(i).getValue(context, target);
+                    }
+                    result.add((T) template.fillRow(values, factory, factory.getConversionService()));
+                }
+                return result;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> castRows(List<?> rows) {
+        return (List<T>) rows;
+    }
+
+    /**
+     * 결과 행(컬럼 배열)에서 Projection 하나를 만드는 방법
+     * 프로퍼티마다 컬럼 위치 또는 중첩 Shape를 가진다.
+     */
+    private static class Shape {
+        private final ProjectionTemplate template;
+        private final boolean nested;
+        private final Object[] slots;
+        /** 중첩 Projection이 가리키는 연관관계 식별자의 컬럼 위치, 없으면(임베디드) -1 */
+        private final int identifier;
+
+        private Shape(ProjectionTemplate template, boolean nested, Object[] slots, int identifier) {
+            this.template = template;
+            this.nested = nested;
+            this.slots = slots;
+            this.identifier = identifier;
+        }
+
+        /**
+         * @param prefix 중첩 Projection의 연관관계 경로 (루트는 빈 리스트)
+         * @return select 절로 만들 수 없으면 null
+         */
+        static Shape of(ProjectionTemplate template, List<String> prefix, ProjectionSelect select, GeneratedProjectionFactory factory) {
+            List<PropertyDescriptor> descriptors = template.getDescriptors();
+            Object[] slots = new Object[descriptors.size()];
+            int identifier = prefix.isEmpty() ? -1 : select.addIdentifier(prefix);
+
+            for (int i = 0; i < slots.length; i++) {
+                PropertyDescriptor descriptor = descriptors.get(i);
+                Value value = descriptor.getReadMethod().getAnnotation(Value.class);
+                if (value != null) {
+                    int column = prefix.isEmpty() ? select.addExpression(value.value()) : -1;
+                    if (column < 0) {
+                        return null;
+                    }
+                    slots[i] = column;
+                    continue;
+                }
+
+                List<String> path = new ArrayList<>(prefix);
+                path.add(descriptor.getName());
+
+                Shape nested = nested(descriptor.getPropertyType(), path, select, factory);
+                if (nested != null) {
+                    slots[i] = nested;
+                    continue;
+                }
+
+                int column = select.addPath(path);
+                if (column < 0) {
+                    return null;
+                }
+                slots[i] = column;
+            }
+            return new Shape(template, !prefix.isEmpty(), slots, identifier);
+        }
+
+        private static Shape nested(Class<?> type, List<String> path, ProjectionSelect select, GeneratedProjectionFactory factory) {
+            if (!type.isInterface()) {
+                return null;
+            }
+            ProjectionInformation information = factory.getProjectionInformation(type);
+            if (!information.isClosed()) {
+                return null;
+            }
+            return factory.template(type)
+                    .map(template -> of(template, path, select, factory))
+                    .orElse(null);
+        }
+
+        Object build(Object[] columns, GeneratedProjectionFactory factory) {
+            if (identifier >= 0 && columns[identifier] == null) {
+                return null; // left join 결과가 없는 연관관계 (팀이 없는 회원)
+            }
+            Object[] values = new Object[slots.length];
+            boolean empty = true;
+            for (int i = 0; i < slots.length; i++) {
+                values[i] = slots[i] instanceof Shape
+                        ? ((Shape) slots[i]).build(columns, factory)
+                        : columns[(Integer) slots[i]];
+                empty &= values[i] == null;
+            }
+            if (nested && identifier < 0 && empty) {
+                return null; // 값이 모두 null인 임베디드 타입은 하이버네이트처럼 null
+            }
+            return template.fillRow(values, factory, factory.getConversionService());
+        }
+    }
+
+    /**
+     * SpEL 루트 객체, 스프링 데이터와 같이 target 으로 엔티티를 참조한다.
+     */
+    public static class Target {
+        private final Object target;
+
+        public Target(Object target) {
+            this.target = target;
+        }
+
+        public Object getTarget() {
+            return target;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package study.datajpa.repository.projection;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.Literal;
+import org.springframework.expression.spel.ast.OpDivide;
+import org.springframework.expression.spel.ast.OpMinus;
+import org.springframework.expression.spel.ast.OpModulus;
+import org.springframework.expression.spel.ast.OpMultiply;
+import org.springframework.expression.spel.ast.OpPlus;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.StringLiteral;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.IdentifiableType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projection 하나의 select 절과 조인을 만든다. 루트 별칭은 m 이다.
+ * 프로퍼티 경로(team.name)는 연관관계마다 left join 별칭을 하나씩 만들고,
+ * 열린 Projection의 SpEL(target.a + ' ' + target.b, 사칙연산)은 JPQL 식으로 바꾼다.
+ */
+class ProjectionSelect {
+
+    static final String ROOT_ALIAS = "m";
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser();
+
+    private final EntityType<?> root;
+    private final List<String> items = new ArrayList<>();
+    private final Map<String, String> joins = new LinkedHashMap<>();
+    private final StringBuilder joinClause = new StringBuilder();
+
+    ProjectionSelect(EntityType<?> root) {
+        this.root = root;
+    }
+
+    /**
+     * 프로퍼티 경로를 select 항목으로 추가한다.
+     * @return 결과 행에서의 위치, 추가하지 못하면(없는 속성, 컬렉션) -1
+     */
+    int addPath(List<String> path) {
+        Item item = path(path);
+        return item == null ? -1 : add(item);
+    }
+
+    /**
+     * 연관관계 경로(team)의 식별자를 select 항목으로 추가한다.
+     * 중첩 Projection의 값이 모두 null이어도 연관관계는 있을 수 있으므로, null 여부는 식별자로 판단한다.
+     * @return 결과 행에서의 위치, 식별자가 없는 경로(임베디드 타입 등)면 -1
+     */
+    int addIdentifier(List<String> path) {
+        Item item = path(path);
+        if (item == null || !(item.target instanceof IdentifiableType)) {
+            return -1;
+        }
+        for (SingularAttribute<?, ?> attribute : item.target.getSingularAttributes()) {
+            if (attribute.isId()) {
+                return add(new Item(item.jpql + "." + attribute.getName(), attribute.getJavaType(), true));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @Value 의 SpEL을 select 항목으로 추가한다.
+     * @return 결과 행에서의 위치, JPQL로 바꿀 수 없는 식이면 -1
+     */
+    int addExpression(String template) {
+        Expression expression;
+        try {
+            expression = PARSER.parseExpression(template, ParserContext.TEMPLATE_EXPRESSION);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+        if (!(expression instanceof SpelExpression)) {
+            return -1; // 리터럴과 #{...} 가 섞인 템플릿
+        }
+
+        Item item = translate(((SpelExpression) expression).getAST());
+        return item == null || !item.basic ? -1 : add(item);
+    }
+
+    private int add(Item item) {
+        items.add(item.jpql);
+        return items.size() - 1;
+    }
+
+    String getSelect() {
+        return String.join(", ", items);
+    }
+
+    String getFrom() {
+        return " from " + root.getName() + " " + ROOT_ALIAS + joinClause;
+    }
+
+    private Item translate(SpelNode node) {
+        if (node instanceof StringLiteral) {
+            String value = (String) ((StringLiteral) node).getLiteralValue().getValue();
+            return new Item("'" + value.replace("'", "''") + "'", String.class, true, false);
+        }
+        if (node instanceof Literal) {
+            Object value = ((Literal) node).getLiteralValue().getValue();
+            return value instanceof Number ? new Item(value.toString(), value.getClass(), true, false) : null;
+        }
+        if (node instanceof CompoundExpression) {
+            return translatePath(node);
+        }
+        if (node.getChildCount() != 2) {
+            return null; // 단항 연산자
+        }
+
+        Item left = translate(node.getChild(0));
+        Item right = translate(node.getChild(1));
+        if (left == null || right == null || !left.basic || !right.basic) {
+            return null;
+        }
+
+        boolean string = left.type == String.class || right.type == String.class;
+        if (node instanceof OpPlus) {
+            return string
+                    ? new Item("concat(" + concatOperand(left) + ", " + concatOperand(right) + ")", String.class, true, false)
+                    : new Item("(" + left.jpql + " + " + right.jpql + ")", Number.class, true);
+        }
+        if (string) {
+            return null;
+        }
+        if (node instanceof OpMinus) {
+            return new Item("(" + left.jpql + " - " + right.jpql + ")", Number.class, true);
+        }
+        if (node instanceof OpMultiply) {
+            return new Item("(" + left.jpql + " * " + right.jpql + ")", Number.class, true);
+        }
+        if (node instanceof OpDivide) {
+            return new Item("(" + left.jpql + " / " + right.jpql + ")", Number.class, true);
+        }
+        if (node instanceof OpModulus) {
+            return new Item("mod(" + left.jpql + ", " + right.jpql + ")", Number.class, true);
+        }
+        return null;
+    }
+
+    /**
+     * SpEL 문자열 연결은 null을 "null"로 붙이지만 SQL concat은 결과 전체가 null이 되므로, null일 수 있는 피연산자를 감싼다.
+     */
+    private static String concatOperand(Item item) {
+        if (!item.nullable) {
+            return item.jpql;
+        }
+        String value = item.type == String.class ? item.jpql : "cast(" + item.jpql + " as string)";
+        return "coalesce(" + value + ", 'null')";
+    }
+
+    /**
+     * target.team.name -> [team, name]
+     */
+    private Item translatePath(SpelNode node) {
+        List<String> path = new ArrayList<>();
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (!(node.getChild(i) instanceof PropertyOrFieldReference)) {
+                return null;
+            }
+            path.add(((PropertyOrFieldReference) node.getChild(i)).getName());
+        }
+        if (path.size() < 2 || !"target".equals(path.get(0))) {
+            return null;
+        }
+        return path(path.subList(1, path.size()));
+    }
+
+    private Item path(List<String> path) {
+        ManagedType<?> current = root;
+        String alias = ROOT_ALIAS;
+        String joinPath = "";
+
+        for (int i = 0; i < path.size(); i++) {
+            String name = path.get(i);
+            boolean last = i == path.size() - 1;
+
+            Attribute<?, ?> attribute;
+            try {
+                attribute = current.getAttribute(name);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (attribute.isCollection()) {
+                return null;
+            }
+
+            if (attribute.isAssociation()) {
+                joinPath = joinPath + "." + name;
+                alias = join(alias, name, joinPath);
+                current = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+                if (last) {
+                    return new Item(alias, attribute.getJavaType(), current);
+                }
+            } else if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.EMBEDDED) {
+                alias = alias + "." + name;
+                current = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+                if (last) {
+                    return new Item(alias, attribute.getJavaType(), current);
+                }
+            } else {
+                return last ? new Item(alias + "." + name, attribute.getJavaType(), true) : null;
+            }
+        }
+        return null;
+    }
+
+    private String join(String parentAlias, String name, String joinPath) {
+        return joins.computeIfAbsent(joinPath, key -> {
+            String alias = "j" + (joins.size() + 1);
+            joinClause.append(" left join ").append(parentAlias).append('.').append(name).append(' ').append(alias);
+            return alias;
+        });
+    }
+
+    private static class Item {
+        private final String jpql;
+        private final Class<?> type;
+        private final boolean basic;
+        private final boolean nullable;
+        /** 연관관계, 임베디드 경로의 타입 (기본 타입 항목은 null) */
+        private final ManagedType<?> target;
+
+        private Item(String jpql, Class<?> type, boolean basic) {
+            this(jpql, type, basic, true, null);
+        }
+
+        private Item(String jpql, Class<?> type, boolean basic, boolean nullable) {
+            this(jpql, type, basic, nullable, null);
+        }
+
+        private Item(String jpql, Class<?> type, ManagedType<?> target) {
+            this(jpql, type, false, true, target);
+        }
+
+        private Item(String jpql, Class<?> type, boolean basic, boolean nullable, ManagedType<?> target) {
+            this.jpql = jpql;
+            this.type = type;
+            this.basic = basic;
+            this.nullable = nullable;
+            this.target = target;
+        }
+    }
+}
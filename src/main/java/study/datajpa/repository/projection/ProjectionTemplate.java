@@ -0,0 +1,223 @@
+package study.datajpa.repository.projection;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.FieldAccessor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
+
+/**
+ * 닫힌 인터페이스 Projection 하나에 대한 생성 클래스
+ * 프로퍼티마다 필드와 getter를 가진 구현 클래스를 한 번만 만들고, 결과 행마다 new + 필드 대입만 한다.
+ * (프록시 + 행마다 Map + 리플렉션 호출 대신)
+ */
+class ProjectionTemplate {
+
+    /**
+     * 엔티티 클래스별 getter 캐시, ClassValue라서 엔티티 클래스(클래스로더)가 내려가면 같이 수거된다.
+     */
+    private static final ClassValue<Map<String, Optional<MethodHandle>>> SOURCE_GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, Optional<MethodHandle>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final MethodHandle constructor;
+    private final List<PropertyDescriptor> descriptors;
+    private final List<Property> properties;
+
+    private ProjectionTemplate(MethodHandle constructor, List<PropertyDescriptor> descriptors, List<Property> properties) {
+        this.constructor = constructor;
+        this.descriptors = descriptors;
+        this.properties = properties;
+    }
+
+    /**
+     * 생성할 수 없는 타입(열린 Projection, getter가 아닌 메서드, 컬렉션 프로퍼티)이면 empty
+     * 매번 클래스를 새로 만들기 때문에 캐시는 GeneratedProjectionFactory가 들고 있는다.
+     */
+    static Optional<ProjectionTemplate> of(Class<?> type, ProjectionInformation information) {
+        if (!information.isClosed()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(create(type, information.getInputProperties()));
+    }
+
+    /**
+     * 열린 Projection(@Value)까지 포함해서 모든 getter를 필드로 만든다. 값은 호출하는 쪽에서 미리 계산해서 넘긴다. (fillRow)
+     */
+    static Optional<ProjectionTemplate> forGetters(Class<?> type) {
+        List<PropertyDescriptor> descriptors = new ArrayList<>();
+        for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+            if (descriptor.getReadMethod() != null) {
+                descriptors.add(descriptor);
+            }
+        }
+        return Optional.ofNullable(create(type, descriptors));
+    }
+
+    private static ProjectionTemplate create(Class<?> type, List<PropertyDescriptor> descriptors) {
+        if (!type.isInterface() || !Modifier.isPublic(type.getModifiers()) || !coversAbstractMethods(type, descriptors)) {
+            return null;
+        }
+
+        DynamicType.Builder<Object> builder = new ByteBuddy()
+                .subclass(Object.class)
+                .name(type.getName() + "$Generated")
+                .implement(type);
+        for (PropertyDescriptor descriptor : descriptors) {
+            if (Collection.class.isAssignableFrom(descriptor.getPropertyType())
+                    || Map.class.isAssignableFrom(descriptor.getPropertyType())) {
+                return null;
+            }
+            builder = builder
+                    .defineField(descriptor.getName(), descriptor.getPropertyType(), Visibility.PUBLIC)
+                    .method(named(descriptor.getReadMethod().getName()).and(takesArguments(0)))
+                    .intercept(FieldAccessor.ofField(descriptor.getName()));
+        }
+        Class<?> generated = builder.make()
+                .load(type.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded();
+
+        try {
+            MethodHandle constructor = LOOKUP.findConstructor(generated, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            List<Property> properties = new ArrayList<>();
+            for (PropertyDescriptor descriptor : descriptors) {
+                MethodHandle setter = LOOKUP.findSetter(generated, descriptor.getName(), descriptor.getPropertyType())
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                properties.add(new Property(descriptor.getName(), descriptor.getPropertyType(), setter));
+            }
+            return new ProjectionTemplate(constructor, descriptors, properties);
+        } catch (NoSuchMethodException | NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException("Projection 클래스를 만들 수 없습니다. type = " + type.getName(), e);
+        }
+    }
+
+    private static boolean coversAbstractMethods(Class<?> type, List<PropertyDescriptor> descriptors) {
+        for (Method method : type.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers())) {
+                continue;
+            }
+            boolean getter = descriptors.stream()
+                    .anyMatch(descriptor -> method.equals(descriptor.getReadMethod()));
+            if (!getter) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * source(튜플 Map 또는 엔티티)에서 프로퍼티 값을 읽어 생성 클래스의 인스턴스를 채운다.
+     */
+    Object fill(Object source, GeneratedProjectionFactory factory, ConversionService conversionService) {
+        try {
+            Object projection = constructor.invokeExact();
+            for (Property property : properties) {
+                Object value = property.convert(read(source, property.name), factory, conversionService);
+                if (value != null || !property.type.isPrimitive()) {
+                    property.setter.invokeExact(projection, value);
+                }
+            }
+            return projection;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 프로퍼티 순서(getDescriptors)대로 나열된 값으로 인스턴스를 채운다.
+     */
+    Object fillRow(Object[] values, GeneratedProjectionFactory factory, ConversionService conversionService) {
+        try {
+            Object projection = constructor.invokeExact();
+            for (int i = 0; i < properties.size(); i++) {
+                Property property = properties.get(i);
+                Object value = property.convert(values[i], factory, conversionService);
+                if (value != null || !property.type.isPrimitive()) {
+                    property.setter.invokeExact(projection, value);
+                }
+            }
+            return projection;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    List<PropertyDescriptor> getDescriptors() {
+        return descriptors;
+    }
+
+    private static Object read(Object source, String name) throws Throwable {
+        if (source instanceof Map) {
+            return ((Map<?, ?>) source).get(name);
+        }
+
+        Optional<MethodHandle> getter = SOURCE_GETTERS.get(source.getClass())
+                .computeIfAbsent(name, key -> sourceGetter(source.getClass(), key));
+        return getter.isPresent() ? getter.get().invokeExact(source) : null;
+    }
+
+    private static Optional<MethodHandle> sourceGetter(Class<?> sourceType, String name) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(sourceType, name);
+        if (descriptor == null || descriptor.getReadMethod() == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(LOOKUP.unreflect(descriptor.getReadMethod())
+                    .asType(MethodType.methodType(Object.class, Object.class)));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Property {
+        private final String name;
+        private final Class<?> type;
+        private final MethodHandle setter;
+
+        private Property(String name, Class<?> type, MethodHandle setter) {
+            this.name = name;
+            this.type = type;
+            this.setter = setter;
+        }
+
+        private Object convert(Object value, GeneratedProjectionFactory factory, ConversionService conversionService) {
+            if (value == null || ClassUtils.isAssignableValue(type, value)) {
+                return value;
+            }
+            if (type.isInterface()) {
+                // 중첩 Projection (NestedClosedProjections.getTeam)
+                return factory.createProjection(type, value);
+            }
+            return conversionService.convert(value, type);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package study.datajpa.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.support.BatchLoader;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 회원 id로 MemberDto를 캐시한다. (애플리케이션 로컬)
+ * Caffeine(W-TinyLFU)으로 자주 조회되는 항목을 남기고, 항목 크기를 추정해서 전체 크기를 바이트 단위로 제한한다.
+ * 캐시 미스는 memberDtoLoader가 동시 요청의 id를 모아서 in 쿼리 한 번으로 조회한다.
+ * 무효화는 MemberDtoCacheListener가 Member, Team 변경 이벤트로 한다.
+ * 변경 시점에 바로 지우고, 트랜잭션이 끝난 뒤 한 번 더 지워서 커밋 전에 다시 읽어 간 값이 남지 않게 한다.
+ * JPQL/네이티브 벌크 수정은 이벤트가 발생하지 않지만, 현재는 DTO에 없는 age만 수정한다.
+ * 반환한 MemberDto는 캐시와 공유하므로 수정하면 안 된다.
+ * - cache.gets, cache.evictions, cache.eviction.weight ... (cache=memberDto)
+ * - member.dto.cache.hit.ratio : 적중률
+ */
+@Component
+public class MemberDtoCache {
+
+    /** 키(Long) + 캐시 노드 + MemberDto + id(Long) */
+    private static final int ENTRY_OVERHEAD = 120;
+    /** String + byte[] 헤더 */
+    private static final int STRING_OVERHEAD = 40;
+
+    private final BatchLoader<Long, MemberDto> memberDtoLoader;
+    private final AsyncCache<Long, MemberDto> cache;
+
+    public MemberDtoCache(BatchLoader<Long, MemberDto> memberDtoLoader,
+                          @Value("${datajpa.dto-cache.max-size:16MB}") DataSize maxSize,
+                          @Value("${datajpa.dto-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                          MeterRegistry registry) {
+        this.memberDtoLoader = memberDtoLoader;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher(MemberDtoCache::weigh)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "memberDto");
+        Gauge.builder("member.dto.cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .register(registry);
+    }
+
+    /**
+     * 캐시에 없으면 팀과 조인해서 조회한다. 같은 id를 동시에 조회하면 한 번만 조회하고, 없는 회원은 캐시하지 않는다.
+     * @throws QueryTimeoutException 로더가 timeout 안에 응답하지 않은 경우
+     */
+    public Optional<MemberDto> get(Long id) {
+        CompletableFuture<MemberDto> future = cache.get(id, (key, executor) -> memberDtoLoader.load(key));
+        try {
+            return Optional.ofNullable(memberDtoLoader.await(future));
+        } catch (QueryTimeoutException e) {
+            // 멈춘 조회를 다음 요청이 다시 기다리지 않게 한다.
+            cache.asMap().remove(id, future);
+            throw e;
+        }
+    }
+
+    public void evict(Long memberId) {
+        cache.synchronous().invalidate(memberId);
+        pending().ifPresent(pending -> pending.memberIds.add(memberId));
+    }
+
+    /**
+     * 팀 이름이 바뀌거나 팀이 삭제되면 그 팀 이름을 가진 DTO를 모두 지운다.
+     */
+    public void evictTeam(String teamName) {
+        evictTeamNow(teamName);
+        pending().ifPresent(pending -> pending.teamNames.add(teamName));
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+        pending().ifPresent(pending -> pending.all = true);
+    }
+
+    private void evictTeamNow(String teamName) {
+        if (teamName != null) {
+            cache.asMap().values().removeIf(future -> carriesTeam(future, teamName));
+        }
+    }
+
+    /**
+     * 로딩 중인 항목은 팀을 알 수 없고 변경 전 값을 읽었을 수 있으므로 함께 지운다.
+     */
+    private static boolean carriesTeam(CompletableFuture<MemberDto> future, String teamName) {
+        if (!future.isDone()) {
+            return true;
+        }
+        MemberDto dto = future.isCompletedExceptionally() ? null : future.join();
+        return dto != null && teamName.equals(dto.getTeamName());
+    }
+
+    /**
+     * 항목 하나의 힙 크기(바이트) 추정치, 문자열은 문자당 2바이트로 계산한다. (LATIN1 이면 실제로는 더 작다.)
+     */
+    static int weigh(Long id, MemberDto dto) {
+        return ENTRY_OVERHEAD + sizeOf(dto.getUsername()) + sizeOf(dto.getTeamName());
+    }
+
+    private static int sizeOf(String value) {
+        return value == null ? 0 : STRING_OVERHEAD + value.length() * 2;
+    }
+
+    /**
+     * 현재 트랜잭션에서 지운 항목, 트랜잭션이 끝나면 다시 지운다. 트랜잭션 밖이면 empty
+     */
+    private Optional<Pending> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.empty();
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return Optional.of(pending);
+    }
+
+    private class Pending implements TransactionSynchronization {
+        private final Set<Long> memberIds = new HashSet<>();
+        private final Set<String> teamNames = new HashSet<>();
+        private boolean all;
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(MemberDtoCache.this);
+            if (all) {
+                cache.synchronous().invalidateAll();
+                return;
+            }
+            cache.synchronous().invalidateAll(memberIds);
+            teamNames.forEach(MemberDtoCache.this::evictTeamNow);
+        }
+    }
+}
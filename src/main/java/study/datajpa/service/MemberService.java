@@ -0,0 +1,39 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.support.OptimisticRetryExecutor;
+
+/**
+ * 회원 수정(조회 - 수정 - 커밋), 버전 충돌이 나면 다시 조회해서 재시도한다.
+ * 비관적 락(findLockByUsername) 없이 동시 수정을 처리한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+    private final OptimisticRetryExecutor retryExecutor;
+
+    public Member changeUsername(Long memberId, String username) {
+        return retryExecutor.execute(() -> {
+            Member member = memberRepository.findById(memberId).get();
+            member.changeUsername(username);
+            return member;
+        });
+    }
+
+    public Member changeTeam(Long memberId, Long teamId) {
+        return retryExecutor.execute(() -> {
+            Member member = memberRepository.findById(memberId).get();
+            Team team = teamRepository.findById(teamId).get();
+            member.changeTeam(team);
+            return member;
+        });
+    }
+}
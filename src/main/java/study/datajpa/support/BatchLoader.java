@@ -0,0 +1,148 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 키 단건 조회를 모아서 한 번에 조회한다. (DataLoader 방식)
+ * 배치의 첫 요청부터 window 동안 들어온 키, 또는 maxBatchSize 개가 모이면 batchFunction을 한 번 호출한다.
+ * 같은 배치 안의 같은 키는 같은 결과를 기다린다. 결과에 없는 키는 null로 완료된다.
+ * batchFunction은 호출한 스레드가 아니라 로더 스레드에서 실행되므로 호출한 쪽의 트랜잭션, 영속성 컨텍스트와 무관하다.
+ * 요청 스레드에서는 get/await로 timeout 까지만 기다린다. (배치가 멈춰도 요청 스레드를 계속 붙잡지 않는다.)
+ * - batch.loader.size : 한 번에 조회한 키 수 (loader=이름)
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Duration timeout;
+    private final ScheduledThreadPoolExecutor executor;
+    private final DistributionSummary batchSize;
+
+    private final Object lock = new Object();
+    private Map<K, CompletableFuture<V>> current; // lock, 아직 조회하지 않은 배치
+
+    public BatchLoader(String name, Function<Set<K>, Map<K, V>> batchFunction,
+                       Duration window, int maxBatchSize, Duration timeout, int threads, MeterRegistry registry) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize는 1 이상이어야 합니다. maxBatchSize = " + maxBatchSize);
+        }
+        this.batchFunction = batchFunction;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-loader-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.batchSize = DistributionSummary.builder("batch.loader.size")
+                .tag("loader", name)
+                .register(registry);
+    }
+
+    public CompletableFuture<V> load(K key) {
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> future;
+        synchronized (lock) {
+            if (current == null) {
+                Map<K, CompletableFuture<V>> batch = new LinkedHashMap<>();
+                current = batch;
+                executor.schedule(() -> dispatchIfOpen(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            future = current.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            current.put(key, future);
+            if (current.size() >= maxBatchSize) {
+                full = current;
+                current = null;
+            }
+        }
+
+        if (full != null) {
+            // 가득 찬 배치는 window를 기다리지 않는다. (예약된 작업은 dispatchIfOpen에서 무시된다.)
+            Map<K, CompletableFuture<V>> batch = full;
+            executor.execute(() -> dispatch(batch));
+        }
+        return future;
+    }
+
+    /**
+     * load 결과를 timeout 까지 기다린다.
+     * @throws QueryTimeoutException timeout 안에 조회되지 않은 경우
+     */
+    public V get(K key) {
+        return await(load(key));
+    }
+
+    /**
+     * @throws QueryTimeoutException timeout 안에 완료되지 않은 경우
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("배치 조회가 " + timeout.toMillis() + "ms 안에 끝나지 않았습니다.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("배치 조회를 기다리는 중 인터럽트되었습니다.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void dispatchIfOpen(Map<K, CompletableFuture<V>> batch) {
+        synchronized (lock) {
+            if (current != batch) {
+                return;
+            }
+            current = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        batchSize.record(batch.size());
+        try {
+            Map<K, V> values = batchFunction.apply(Collections.unmodifiableSet(batch.keySet()));
+            batch.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Throwable e) {
+            // Error(OOM 등)도 완료시키지 않으면 기다리는 호출이 끝나지 않는다.
+            batch.values().forEach(future -> future.completeExceptionally(e));
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
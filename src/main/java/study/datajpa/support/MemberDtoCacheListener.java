@@ -0,0 +1,67 @@
+package study.datajpa.support;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.service.MemberDtoCache;
+
+import java.util.Objects;
+
+/**
+ * 하이버네이트 PostUpdate, PostDelete 이벤트로 MemberDtoCache를 무효화한다.
+ * - Member 수정/삭제 : 그 회원
+ * - Team 이름 변경/삭제 : 이전 이름을 가진 회원 전부 (members 변경으로 버전만 올라간 경우는 제외)
+ * 등록은 HibernateEventListenerConfig가 EntityManagerFactory를 만들면서 한다.
+ * MemberDtoCache는 리포지토리(EntityManagerFactory)에 의존하므로 이벤트 때 꺼내 쓴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberDtoCacheListener implements PostUpdateEventListener, PostDeleteEventListener {
+
+    private final ObjectProvider<MemberDtoCache> memberDtoCacheProvider;
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        MemberDtoCache memberDtoCache = memberDtoCacheProvider.getObject();
+        if (event.getEntity() instanceof Member) {
+            memberDtoCache.evict((Long) event.getId());
+        } else if (event.getEntity() instanceof Team) {
+            if (event.getOldState() == null) {
+                // 이전 이름을 알 수 없다.
+                memberDtoCache.evictAll();
+                return;
+            }
+            int name = nameIndex(event.getPersister());
+            Object oldName = event.getOldState()[name];
+            if (!Objects.equals(oldName, event.getState()[name])) {
+                memberDtoCache.evictTeam((String) oldName);
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        MemberDtoCache memberDtoCache = memberDtoCacheProvider.getObject();
+        if (event.getEntity() instanceof Member) {
+            memberDtoCache.evict((Long) event.getId());
+        } else if (event.getEntity() instanceof Team) {
+            memberDtoCache.evictTeam((String) event.getDeletedState()[nameIndex(event.getPersister())]);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static int nameIndex(EntityPersister persister) {
+        return persister.getEntityMetamodel().getPropertyIndex("name");
+    }
+}
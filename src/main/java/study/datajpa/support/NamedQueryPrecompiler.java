@@ -0,0 +1,54 @@
+package study.datajpa.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.TaskExecutor;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * hibernate.query.startup_check=false 로 기동 시 건너뛴 named query(Member.findByUsername 등) 검사를
+ * 기동 완료 후 백그라운드에서 한다. 검사하면서 만든 쿼리 플랜은 플랜 캐시에 남으므로 첫 요청에서 다시 파싱하지 않는다.
+ * 잘못된 쿼리는 기동을 막지 않고 에러 로그로 남긴다.
+ */
+@Slf4j
+public class NamedQueryPrecompiler implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final EntityManagerFactory emf;
+    private final TaskExecutor executor;
+
+    private volatile CompletableFuture<Map<String, HibernateException>> result;
+
+    public NamedQueryPrecompiler(EntityManagerFactory emf, TaskExecutor executor) {
+        this.emf = emf;
+        this.executor = executor;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        result = CompletableFuture.supplyAsync(this::precompile, executor);
+    }
+
+    /**
+     * @return 검사 결과 (쿼리 이름 - 오류), 기동 완료 전이면 null
+     */
+    public CompletableFuture<Map<String, HibernateException>> getResult() {
+        return result;
+    }
+
+    private Map<String, HibernateException> precompile() {
+        long start = System.nanoTime();
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        Map<String, HibernateException> errors = sessionFactory.getNamedQueryRepository()
+                .checkNamedQueries(sessionFactory.getQueryPlanCache());
+
+        errors.forEach((name, error) -> log.error("named query 오류: {}", name, error));
+        log.info("named query 검사 완료: 오류 {}건, {}ms", errors.size(), (System.nanoTime() - start) / 1_000_000);
+        return errors;
+    }
+}
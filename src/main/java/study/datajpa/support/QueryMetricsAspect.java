@@ -0,0 +1,75 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 메서드, 컨트롤러 요청 단위로 SQL 통계를 모아서 메트릭으로 남긴다.
+ * - jpa.calls : 호출 시간
+ * - jpa.calls.sql : SQL 실행 시간 합계
+ * - jpa.calls.statements, jpa.calls.rows, jpa.calls.entities : 호출당 SQL 수, row 수, 로딩한 엔티티 수
+ */
+@Slf4j
+@Aspect
+@Component
+public class QueryMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final long nPlusOneThreshold;
+
+    public QueryMetricsAspect(MeterRegistry registry,
+                              @Value("${datajpa.query-metrics.n-plus-one-threshold:10}") long nPlusOneThreshold) {
+        this.registry = registry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Around("this(study.datajpa.repository.MemberRepository)")
+    public Object memberRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return measure("repository", "MemberRepository", joinPoint);
+    }
+
+    @Around("this(study.datajpa.repository.TeamRepository)")
+    public Object teamRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return measure("repository", "TeamRepository", joinPoint);
+    }
+
+    @Around("within(study.datajpa.controller..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object controller(ProceedingJoinPoint joinPoint) throws Throwable {
+        return measure("controller", joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    private Object measure(String layer, String type, ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryStats stats = QueryStatsHolder.start();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            QueryStatsHolder.stop(stats);
+            record(layer, type, joinPoint.getSignature().getName(), stats, elapsed);
+        }
+    }
+
+    private void record(String layer, String type, String method, QueryStats stats, long elapsedNanos) {
+        Tags tags = Tags.of("layer", layer, "type", type, "method", method);
+        Timer.builder("jpa.calls").tags(tags).register(registry).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Timer.builder("jpa.calls.sql").tags(tags).register(registry).record(stats.getSqlNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("jpa.calls.statements").tags(tags).register(registry).record(stats.getStatements());
+        DistributionSummary.builder("jpa.calls.rows").tags(tags).register(registry).record(stats.getRows());
+        DistributionSummary.builder("jpa.calls.entities").tags(tags).register(registry).record(stats.getEntities());
+
+        if (stats.getStatements() > nPlusOneThreshold) {
+            log.warn("N+1 의심: {}.{} 에서 SQL {}번 실행 ({})", type, method, stats.getStatements(), stats);
+        }
+    }
+}
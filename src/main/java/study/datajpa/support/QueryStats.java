@@ -0,0 +1,30 @@
+package study.datajpa.support;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 하나의 측정 구간(리포지토리 메서드 호출, 컨트롤러 요청 등)에서 실행된 SQL 통계
+ */
+@Getter
+@ToString
+public class QueryStats {
+
+    private long statements;
+    private long rows;
+    private long entities;
+    private long sqlNanos;
+
+    void statementExecuted(long elapsedNanos) {
+        statements++;
+        sqlNanos += elapsedNanos;
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+
+    void entityLoaded() {
+        entities++;
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.support;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 하이버네이트 PostLoad 이벤트로 로딩된 엔티티 수를 센다.
+ * 등록은 HibernateEventListenerConfig가 한다.
+ */
+@Component
+public class QueryStatsEntityListener implements PostLoadEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        QueryStatsHolder.entityLoaded();
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.support;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 스레드에서 열려 있는 측정 구간들을 보관한다.
+ * 구간은 중첩될 수 있고(요청 안의 리포지토리 호출), SQL 이벤트는 열려 있는 모든 구간에 더해진다.
+ */
+public class QueryStatsHolder {
+
+    /**
+     * 구간이 열려 있을 때만 값이 있다. 구간 없이 SQL을 실행하는 스레드(로더, count, 실행기)에는 아무것도 만들지 않는다.
+     */
+    private static final ThreadLocal<Deque<QueryStats>> SCOPES = new ThreadLocal<>();
+
+    private QueryStatsHolder() {
+    }
+
+    public static QueryStats start() {
+        Deque<QueryStats> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        QueryStats stats = new QueryStats();
+        scopes.push(stats);
+        return stats;
+    }
+
+    public static void stop(QueryStats stats) {
+        Deque<QueryStats> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        scopes.remove(stats);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    static void statementExecuted(long elapsedNanos) {
+        Deque<QueryStats> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        for (QueryStats stats : scopes) {
+            stats.statementExecuted(elapsedNanos);
+        }
+    }
+
+    static void rowFetched() {
+        Deque<QueryStats> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        for (QueryStats stats : scopes) {
+            stats.rowFetched();
+        }
+    }
+
+    static void entityLoaded() {
+        Deque<QueryStats> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        for (QueryStats stats : scopes) {
+            stats.entityLoaded();
+        }
+    }
+}
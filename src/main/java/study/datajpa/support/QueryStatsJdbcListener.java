@@ -0,0 +1,28 @@
+package study.datajpa.support;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트로 SQL 실행 횟수, 시간, 읽은 row 수를 센다.
+ * JdbcEventListener 빈은 p6spy-spring-boot-starter가 자동으로 등록한다.
+ */
+@Component
+public class QueryStatsJdbcListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        QueryStatsHolder.statementExecuted(timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        if (hasNext) {
+            QueryStatsHolder.rowFetched();
+        }
+    }
+}
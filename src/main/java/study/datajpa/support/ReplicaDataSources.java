@@ -0,0 +1,157 @@
+package study.datajpa.support;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 쓰기용 primary 와 읽기 전용 레플리카 목록, 레플리카 상태를 관리한다.
+ * - 커넥션을 얻지 못한 레플리카는 다음 점검(probe) 전까지 제외한다.
+ * - lagQuery(지연 시간, 초)가 있으면 점검마다 실행해서 maxLag를 넘는 레플리카를 제외한다.
+ * 정상 레플리카가 없으면 읽기도 primary로 보낸다.
+ */
+@Slf4j
+public class ReplicaDataSources implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ScheduledExecutorService probeExecutor;
+
+    public ReplicaDataSources(DataSource primary, List<DataSource> replicas, String lagQuery, Duration maxLag) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica(i, replicas.get(i)));
+        }
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * interval 마다 레플리카 상태를 점검한다.
+     */
+    public void start(Duration interval) {
+        probeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        probeExecutor.scheduleWithFixedDelay(this::probe, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    List<DataSource> getReplicas() {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (Replica replica : replicas) {
+            dataSources.add(replica.dataSource);
+        }
+        return Collections.unmodifiableList(dataSources);
+    }
+
+    /**
+     * 정상 레플리카를 돌아가며 고른다.
+     * @return 레플리카 번호, 정상 레플리카가 없으면 -1
+     */
+    int nextReplica() {
+        int size = replicas.size();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), size));
+            if (replica.healthy) {
+                return replica.index;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isHealthy(int index) {
+        return replicas.get(index).healthy;
+    }
+
+    void markDown(int index, Exception cause) {
+        Replica replica = replicas.get(index);
+        if (replica.healthy) {
+            log.warn("레플리카 {} 를 제외합니다. 다음 점검까지 읽기는 primary로 보냅니다. ({})", index, cause.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    /**
+     * 레플리카마다 커넥션을 얻어 보고, lagQuery가 있으면 지연 시간을 확인한다.
+     */
+    public void probe() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                boolean healthy = connection.isValid(1);
+                if (healthy && lagQuery != null) {
+                    long lagMillis = lagMillis(connection);
+                    healthy = lagMillis <= maxLag.toMillis();
+                    if (!healthy) {
+                        log.warn("레플리카 {} 지연 {}ms 가 허용치 {}ms 를 넘어서 제외합니다.", replica.index, lagMillis, maxLag.toMillis());
+                    }
+                }
+                replica.healthy = healthy;
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica.index, e);
+            }
+        }
+    }
+
+    private long lagMillis(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            return rs.next() ? (long) (rs.getDouble(1) * 1000) : 0;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (probeExecutor != null) {
+            probeExecutor.shutdownNow();
+        }
+        closeQuietly(primary);
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof Closeable) {
+            try {
+                ((Closeable) dataSource).close();
+            } catch (IOException e) {
+                log.warn("데이터소스를 닫지 못했습니다.", e);
+            }
+        }
+    }
+
+    private static class Replica {
+        private final int index;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(int index, DataSource dataSource) {
+            this.index = index;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package study.datajpa.support;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))의 커넥션은 레플리카에서, 나머지는 primary에서 얻는다.
+ * 트랜잭션 시작 시점에는 readOnly 여부가 아직 동기화되지 않으므로 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+ * 레플리카 커넥션을 얻지 못하면 해당 레플리카를 제외하고 primary 커넥션을 반환한다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final ReplicaDataSources dataSources;
+
+    public ReplicaRoutingDataSource(ReplicaDataSources dataSources) {
+        this.dataSources = dataSources;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, dataSources.getPrimary());
+        List<DataSource> replicas = dataSources.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(dataSources.getPrimary());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int replica = dataSources.nextReplica();
+        return replica < 0 ? PRIMARY : replica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(ConnectionSource source) throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return source.get(dataSources.getPrimary());
+        }
+
+        try {
+            return source.get(getResolvedDataSources().get(key));
+        } catch (SQLException e) {
+            dataSources.markDown((Integer) key, e);
+            return source.get(dataSources.getPrimary());
+        }
+    }
+
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+}
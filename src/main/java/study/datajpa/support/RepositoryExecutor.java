@@ -0,0 +1,66 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 리포지토리 호출 전용 실행기
+ * 스레드 수는 커넥션 풀 크기에 맞추고 대기열 크기를 제한한다.
+ * 대기열이 가득 차면 기다리지 않고 바로 RejectedExecutionException을 던진다.
+ * - repository.executor.queue, repository.executor.active : 대기열 길이, 실행 중인 작업 수
+ * - repository.executor.wait : 제출부터 실행 시작까지 기다린 시간
+ * - repository.executor.rejected : 거절된 작업 수
+ */
+public class RepositoryExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public RepositoryExecutor(int threads, int queueCapacity, MeterRegistry registry) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "repository-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("repository.executor.queue", executor, e -> e.getQueue().size()).register(registry);
+        Gauge.builder("repository.executor.active", executor, ThreadPoolExecutor::getActiveCount).register(registry);
+        this.waitTimer = Timer.builder("repository.executor.wait").publishPercentileHistogram().register(registry);
+        this.rejected = Counter.builder("repository.executor.rejected").register(registry);
+    }
+
+    /**
+     * @throws RejectedExecutionException 대기열이 가득 찬 경우
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return task.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
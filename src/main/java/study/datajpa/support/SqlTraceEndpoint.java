@@ -0,0 +1,47 @@
+package study.datajpa.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL 추적 설정 조회, 변경
+ * GET /actuator/sqltrace
+ * POST /actuator/sqltrace {"enabled": true, "samplePercent": 10, "slowThresholdMillis": 50} (생략한 값은 유지)
+ * 바인딩 값(개인정보)을 로그에 남기므로 기본으로는 웹에 노출하지 않는다.
+ * 열려면 management.server.port 를 외부에서 접근할 수 없는 포트로 분리한 뒤
+ * management.endpoints.web.exposure.include 에 sqltrace를 추가한다.
+ */
+@Component
+@Endpoint(id = "sqltrace")
+@RequiredArgsConstructor
+public class SqlTraceEndpoint {
+
+    private final SqlTraceListener listener;
+
+    @ReadOperation
+    public Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("enabled", listener.isEnabled());
+        settings.put("samplePercent", listener.getSamplePercent());
+        settings.put("slowThresholdMillis", listener.getSlowThresholdMillis());
+        return settings;
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable Boolean enabled,
+                                         @Nullable Double samplePercent,
+                                         @Nullable Long slowThresholdMillis) {
+        listener.configure(
+                enabled != null ? enabled : listener.isEnabled(),
+                samplePercent != null ? samplePercent : listener.getSamplePercent(),
+                slowThresholdMillis != null ? slowThresholdMillis : listener.getSlowThresholdMillis());
+        return settings();
+    }
+}
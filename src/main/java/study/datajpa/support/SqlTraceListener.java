@@ -0,0 +1,90 @@
+package study.datajpa.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실행 중에 켜고 끌 수 있는 SQL 추적 (/actuator/sqltrace)
+ * slowThreshold 이상 걸린 SQL 중 samplePercent 만큼만 파라미터를 채운 SQL을 study.datajpa.sql.trace 로거로 남긴다.
+ * 로거는 비동기 appender(logback-spring.xml)에 연결되어 있어서 요청 스레드가 로그 I/O를 기다리지 않는다.
+ * 꺼져 있으면 이 리스너는 SQL마다 volatile 읽기 한 번만 한다.
+ * 다만 p6spy 프록시는 켜짐 여부와 관계없이 바인딩 값을 모으고 QueryStatsJdbcListener도 SQL, 행마다 동작하므로
+ * 꺼 두어도 p6spy 계층의 비용은 남는다. (SqlTraceBenchmark 의 off - noP6spy)
+ * 이 비용도 없애려면 decorator.datasource.enabled=false 로 p6spy를 빼야 하고, 그러면 QueryStats 집계도 함께 꺼진다.
+ * - jpa.sql.trace.logged : 로그로 남긴 SQL 수
+ */
+@Component
+public class SqlTraceListener extends SimpleJdbcEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger("study.datajpa.sql.trace");
+
+    private volatile boolean enabled;
+    private volatile double samplePercent;
+    private volatile long slowThresholdNanos;
+
+    private final Counter logged;
+
+    public SqlTraceListener(@Value("${datajpa.sql-trace.enabled:false}") boolean enabled,
+                            @Value("${datajpa.sql-trace.sample-percent:100}") double samplePercent,
+                            @Value("${datajpa.sql-trace.slow-threshold-millis:0}") long slowThresholdMillis,
+                            MeterRegistry registry) {
+        configure(enabled, samplePercent, slowThresholdMillis);
+        this.logged = registry.counter("jpa.sql.trace.logged");
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!enabled || timeElapsedNanos < slowThresholdNanos) {
+            return;
+        }
+        if (samplePercent < 100 && ThreadLocalRandom.current().nextDouble(100) >= samplePercent) {
+            return;
+        }
+
+        logged.increment();
+        log.info("{}ms | connection {} | {}{}",
+                TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos),
+                statementInformation.getConnectionInformation().getConnectionId(),
+                statementInformation.getSqlWithValues(),
+                e == null ? "" : " | " + e.getMessage());
+    }
+
+    /**
+     * @param enabled 추적 여부
+     * @param samplePercent 남길 비율 (0 ~ 100)
+     * @param slowThresholdMillis 이 시간 이상 걸린 SQL만 남긴다.
+     */
+    public void configure(boolean enabled, double samplePercent, long slowThresholdMillis) {
+        if (samplePercent < 0 || samplePercent > 100) {
+            throw new IllegalArgumentException("samplePercent는 0 ~ 100 이어야 합니다. samplePercent = " + samplePercent);
+        }
+        if (slowThresholdMillis < 0) {
+            throw new IllegalArgumentException("slowThresholdMillis는 0 이상이어야 합니다. slowThresholdMillis = " + slowThresholdMillis);
+        }
+        this.samplePercent = samplePercent;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getSamplePercent() {
+        return samplePercent;
+    }
+
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+}
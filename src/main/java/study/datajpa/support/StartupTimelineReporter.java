@@ -0,0 +1,65 @@
+package study.datajpa.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 기동 타임라인 요약 로그, 애플리케이션이 BufferingApplicationStartup으로 기동했을 때만 동작한다. (DataJpaApplication.main)
+ * - 빈 생성(spring.beans.instantiate) 시간 상위 N개
+ * - 리포지토리 초기화(spring.data.repository.init) 시간 전체
+ * 전체 타임라인은 /actuator/startup 으로 볼 수 있다.
+ */
+@Slf4j
+@Component
+public class StartupTimelineReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final int TOP_BEANS = 20;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+
+        StartupTimeline timeline = ((BufferingApplicationStartup) startup).getBufferedTimeline();
+        log.info("기동 시간: {}ms", Duration.between(timeline.getStartTime(), Instant.now()).toMillis());
+        log.info("빈 생성 시간 상위 {}개\n{}", TOP_BEANS, report(timeline, "spring.beans.instantiate", "beanName", TOP_BEANS));
+        log.info("리포지토리 초기화 시간\n{}", report(timeline, "spring.data.repository.init", "repository", Integer.MAX_VALUE));
+    }
+
+    private static String report(StartupTimeline timeline, String stepName, String tagKey, int limit) {
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents().stream()
+                .filter(e -> stepName.equals(e.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        StringBuilder report = new StringBuilder();
+        for (StartupTimeline.TimelineEvent e : events) {
+            report.append(String.format("%8dms  %s%n", e.getDuration().toMillis(), tag(e.getStartupStep(), tagKey)));
+        }
+        return report.toString();
+    }
+
+    private static String tag(StartupStep step, String key) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (key.equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
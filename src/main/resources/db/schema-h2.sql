@@ -0,0 +1,31 @@
+-- fast-startup 프로파일(ddl-auto: validate)에서 H2를 쓸 때의 스키마
+-- 운영 DB는 마이그레이션으로 같은 스키마를 만들어 둔다.
+create sequence if not exists member_seq start with 1 increment by 50;
+create sequence if not exists team_seq start with 1 increment by 50;
+
+create table if not exists team (
+    team_id bigint not null,
+    name varchar(255),
+    version bigint,
+    primary key (team_id)
+);
+
+create table if not exists member (
+    member_id bigint not null,
+    created_date timestamp,
+    last_modified_date timestamp,
+    created_by varchar(255),
+    last_modified_by varchar(255),
+    age bigint,
+    username varchar(255),
+    version bigint,
+    team_id bigint,
+    primary key (member_id),
+    constraint fk_member_team foreign key (team_id) references team (team_id)
+);
+
+create table if not exists item (
+    id varchar(255) not null,
+    created_date timestamp,
+    primary key (id)
+);
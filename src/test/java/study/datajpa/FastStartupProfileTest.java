@@ -0,0 +1,69 @@
+package study.datajpa;
+
+import org.hibernate.HibernateException;
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.support.NamedQueryPrecompiler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * fast-startup 프로파일: 스키마 검증(validate)이 통과하고, 지연 초기화된 리포지토리와 named query가 동작하는지 확인한다.
+ * SessionFactoryObserver로 EntityManagerFactory를 만든 스레드를 기록해서 백그라운드(applicationTaskExecutor)에서 만들었는지 본다.
+ */
+@ActiveProfiles("fast-startup")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:datajpa-fast-startup",
+        "spring.jpa.properties.hibernate.session_factory_observer=study.datajpa.FastStartupProfileTest$BootstrapThreadObserver"
+})
+class FastStartupProfileTest {
+
+    static volatile String bootstrapThread;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    NamedQueryPrecompiler namedQueryPrecompiler;
+
+    @Test
+    public void bootstrapInBackground() {
+        // 리스너 등록(Integrator) 등으로 메인 스레드가 먼저 만들지 않고 applicationTaskExecutor가 만든다.
+        assertThat(bootstrapThread).startsWith("task-");
+    }
+
+    @Test
+    public void deferredRepositoryAndNamedQuery() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("fastStartup", 10L));
+
+        // when
+        List<Member> result = memberRepository.findByUsername("fastStartup");
+
+        // then
+        assertThat(result).extracting("id").containsExactly(member.getId());
+        memberRepository.deleteAllInBatch();
+
+        // 기동 후 백그라운드 named query 검사
+        Map<String, HibernateException> errors = namedQueryPrecompiler.getResult().get(10, TimeUnit.SECONDS);
+        assertThat(errors).isEmpty();
+    }
+
+    public static class BootstrapThreadObserver implements SessionFactoryObserver {
+
+        @Override
+        public void sessionFactoryCreated(SessionFactory factory) {
+            bootstrapThread = Thread.currentThread().getName();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package study.datajpa.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.support.RepositoryExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 비동기 요청은 다른 스레드에서 실행되므로 테스트 트랜잭션 없이 저장하고 직접 지운다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberAsyncControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    List<Long> memberIds = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllById(memberIds);
+    }
+
+    @Test
+    public void listSameAsSync() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            memberIds.add(memberRepository.save(new Member("async" + i, 777L)).getId());
+        }
+        String query = "?age=777&size=2&sort=id";
+
+        MvcResult async = mockMvc.perform(get("/async/members" + query))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String asyncBody = mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String syncBody = mockMvc.perform(get("/members" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(asyncBody).isEqualTo(syncBody).contains("async0", "async1");
+    }
+
+    @Test
+    public void busyWhenSaturated() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RepositoryExecutor executor = new RepositoryExecutor(1, 1, registry);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // 스레드 1개와 대기열 1칸을 채운다.
+            executor.submit(() -> await(release));
+            executor.submit(() -> await(release));
+            MockMvc saturated = MockMvcBuilders
+                    .standaloneSetup(new MemberAsyncController(memberRepository, executor))
+                    .build();
+
+            saturated.perform(get("/async/members/1"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(content().string("busy"));
+            assertThat(registry.get("repository.executor.rejected").counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package study.datajpa.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.format.support.FormattingConversionService;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import study.datajpa.config.WebConfig;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberDtoCache;
+import study.datajpa.support.BatchLoader;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /members/{id}, /members2/{id} 웹 계층 (경로 변수 변환, 로더 timeout 503, 잘못된 id 400)
+ * 로더 스레드에서 조회하므로 테스트 트랜잭션 없이 저장하고 직접 지운다.
+ * 동시 요청이 한 배치로 모이도록 window를 넉넉하게 준다.
+ */
+@SpringBootTest(properties = "datajpa.batch-loader.window=300ms")
+@AutoConfigureMockMvc
+class MemberControllerMvcTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    List<Long> memberIds = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllById(memberIds);
+    }
+
+    @Test
+    public void members2CoalescesConcurrentRequests() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            memberIds.add(memberRepository.save(new Member("mvc" + i, 10L)).getId());
+        }
+        double batches = batches();
+        double loaded = loaded();
+
+        // 동시에 보낸 요청 5개가 in 쿼리 한 번으로 조회된다. (DomainClassConverter였다면 findById 5번)
+        ExecutorService clients = Executors.newFixedThreadPool(memberIds.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<String>> responses = new ArrayList<>();
+            for (Long id : memberIds) {
+                responses.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                        return mockMvc.perform(get("/members2/" + id))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, clients));
+            }
+            start.countDown();
+
+            List<String> usernames = new ArrayList<>();
+            for (CompletableFuture<String> response : responses) {
+                usernames.add(response.join());
+            }
+            assertThat(usernames).containsExactlyInAnyOrder("mvc0", "mvc1", "mvc2", "mvc3", "mvc4");
+        } finally {
+            clients.shutdown();
+        }
+        assertThat(batches()).isEqualTo(batches + 1);
+        assertThat(loaded()).isEqualTo(loaded + 5);
+    }
+
+    @Test
+    public void members2NotNumber() throws Exception {
+        // 변환 실패 중 로더 timeout이 아닌 것은 기본 처리(400)로 넘긴다.
+        mockMvc.perform(get("/members2/abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void membersFromCache() throws Exception {
+        memberIds.add(memberRepository.save(new Member("mvcCache", 10L)).getId());
+
+        mockMvc.perform(get("/members/" + memberIds.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("mvcCache"));
+    }
+
+    @Test
+    public void busyOnLoaderTimeout() throws Exception {
+        // window가 timeout 보다 길어서 항상 timeout 되는 로더
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BatchLoader<Long, Member> memberLoader = new BatchLoader<>("slowMember", ids -> Collections.emptyMap(),
+                Duration.ofMinutes(1), 100, Duration.ofMillis(50), 1, registry);
+        BatchLoader<Long, MemberDto> memberDtoLoader = new BatchLoader<>("slowMemberDto", ids -> Collections.emptyMap(),
+                Duration.ofMinutes(1), 100, Duration.ofMillis(50), 1, registry);
+        try {
+            FormattingConversionService conversionService = new DefaultFormattingConversionService();
+            new WebConfig(memberLoader).addFormatters(conversionService);
+            MemberDtoCache memberDtoCache = new MemberDtoCache(memberDtoLoader, DataSize.ofMegabytes(1), Duration.ofMinutes(1), registry);
+            MockMvc slow = MockMvcBuilders
+                    .standaloneSetup(new MemberController(memberRepository, memberDtoCache, objectMapper))
+                    .setConversionService(conversionService)
+                    .build();
+
+            slow.perform(get("/members2/1"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(content().string("busy"));
+            slow.perform(get("/members/1"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(content().string("busy"));
+        } finally {
+            memberLoader.shutdown();
+            memberDtoLoader.shutdown();
+        }
+    }
+
+    private double batches() {
+        return meterRegistry.summary("batch.loader.size", "loader", "member").count();
+    }
+
+    private double loaded() {
+        return meterRegistry.summary("batch.loader.size", "loader", "member").totalAmount();
+    }
+}
@@ -0,0 +1,58 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.CountMode;
+import study.datajpa.support.QueryCounter;
+import study.datajpa.support.QueryStats;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MemberController memberController;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void listHasNoNPlusOne() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, 10L, team));
+        }
+        em.flush();
+        em.clear();
+
+        // when, then: 내용 1번 + count 1번
+        QueryStats stats = QueryCounter.assertMaxStatements(2,
+                () -> memberController.list(PageRequest.of(0, 5), null, CountMode.EXACT));
+        assertThat(stats.getEntities()).isZero();
+    }
+
+    @Test
+    public void listByCursorRejectsBadRequest() {
+        assertThatThrownBy(() -> memberController.listByCursor("not-a-cursor", 5))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThatThrownBy(() -> memberController.listByCursor(null, 0))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting("status").isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,80 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.TeamDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.support.QueryCounter;
+import study.datajpa.support.QueryStats;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamControllerTest {
+
+    @Autowired
+    TeamController teamController;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void listTeamsWithMembers() {
+        // given
+        saveTeams(10, 3);
+
+        // when, then: 팀 1번 + count 1번 + 회원 1번
+        AtomicReference<Page<TeamDto>> result = new AtomicReference<>();
+        QueryCounter.assertMaxStatements(3,
+                () -> result.set(teamController.list(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id")))));
+
+        assertThat(result.get().getContent()).hasSize(10);
+        assertThat(result.get().getContent()).allSatisfy(team -> assertThat(team.getMembers()).hasSize(3));
+    }
+
+    @Test
+    public void batchFetchMembers() {
+        // given
+        List<Long> ids = saveTeams(10, 2);
+
+        // when, then: 팀 1번 + 회원 1번 (default_batch_fetch_size)
+        QueryStats stats = QueryCounter.assertMaxStatements(2, () -> {
+            for (Team team : teamRepository.findAllById(ids)) {
+                team.getMembers().size();
+            }
+        });
+        assertThat(stats.getEntities()).isEqualTo(30);
+    }
+
+    private List<Long> saveTeams(int teamCount, int memberCount) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            for (int j = 0; j < memberCount; j++) {
+                em.persist(new Member("member" + i + "_" + j, 10L, team));
+            }
+            ids.add(team.getId());
+        }
+        em.flush();
+        em.clear();
+        return ids;
+    }
+}
@@ -48,4 +48,19 @@ class MemberTest {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void changeTeamIsIdempotent() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        Member member = new Member("member1", 10L, teamA);
+        member.changeTeam(teamA);
+        assertEquals(1, teamA.getMembers().size());
+
+        member.changeTeam(teamB);
+        assertTrue(teamA.getMembers().isEmpty());
+        assertEquals(1, teamB.getMembers().size());
+        assertSame(teamB, member.getTeam());
+    }
+}
@@ -1,10 +1,18 @@
 package study.datajpa.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import study.datajpa.entity.Item;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -13,9 +21,37 @@ class ItemRepositoryTest {
     @Autowired
     ItemRepository itemRepository;
 
+    @Autowired
+    EntityManagerFactory emf;
+
     @Test
     public void save() {
         Item item = new Item("A");
         itemRepository.save(item);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void upsertAll() {
+        List<Item> items = IntStream.range(0, 250)
+                .mapToObj(i -> new Item("upsert" + i))
+                .collect(Collectors.toList());
+        long before = itemRepository.count();
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        int inserted = itemRepository.upsertAll(items);
+        // 같은 아이템을 다시 넣어도 SELECT 없이 MERGE만 실행된다.
+        int reinserted = itemRepository.upsertAll(items);
+
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        // batch_size(100) 단위로 MERGE 3번씩, 총 6번
+        assertThat(statements).isEqualTo(6);
+        assertThat(inserted).isEqualTo(250);
+        assertThat(reinserted).isEqualTo(0);
+        assertThat(itemRepository.count()).isEqualTo(before + 250);
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.BulkUpdateResult;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 청크마다 커밋하므로 테스트 트랜잭션(@Transactional) 없이 실행한다.
+ */
+@SpringBootTest
+class MemberBulkUpdaterTest {
+
+    @Autowired
+    MemberBulkUpdater memberBulkUpdater;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    EntityManager em;
+
+    List<Long> saved = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllById(saved);
+    }
+
+    @Test
+    public void bulkAgePlusInChunks() {
+        // given
+        Member young = memberRepository.save(new Member("young", 999L));
+        Member old1 = memberRepository.save(new Member("old1", 1000L));
+        Member old2 = memberRepository.save(new Member("old2", 2000L));
+        saved.add(young.getId());
+        saved.add(old1.getId());
+        saved.add(old2.getId());
+
+        // 호출한 쪽이 읽기 전용 트랜잭션이면 그 영속성 컨텍스트에서 수정된 회원만 제거한다.
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            Member managedYoung = em.find(Member.class, young.getId());
+            Member managedOld = em.find(Member.class, old1.getId());
+
+            // when
+            BulkUpdateResult result = memberBulkUpdater.bulkAgePlus(1000L, 1);
+
+            // then: 수정된 회원만 영속성 컨텍스트에서 빠진다.
+            assertThat(result.getTotalRows()).isGreaterThanOrEqualTo(2);
+            assertThat(result.getChunks()).allMatch(chunk -> chunk.getRows() <= 1);
+            assertThat(em.contains(managedYoung)).isTrue();
+            assertThat(em.contains(managedOld)).isFalse();
+            assertThat(em.find(Member.class, old1.getId()).getAge()).isEqualTo(1001L);
+            assertThat(em.find(Member.class, old2.getId()).getAge()).isEqualTo(2001L);
+        });
+    }
+
+    @Test
+    public void rejectReadWriteTransaction() {
+        // 쓰기 트랜잭션이 flush한 row를 청크 트랜잭션이 기다리는 교착을 막는다.
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> memberBulkUpdater.bulkAgePlus(1000L, 1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,142 @@
+package study.datajpa.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQL95Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * claimByAge (FOR UPDATE SKIP LOCKED)
+ * H2Dialect는 SKIP LOCKED를 지원하지 않으므로 SQL은 지원하는 방언(PostgreSQL)으로 만들어서 확인하고,
+ * 실제 동시 선점은 지원하는 DB에서만 실행한다.
+ */
+@SpringBootTest
+class MemberClaimTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    List<Long> memberIds = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllById(memberIds);
+    }
+
+    @Test
+    public void renderSkipLocked() {
+        List<String> statements = new CopyOnWriteArrayList<>();
+        EntityManagerFactory postgres = entityManagerFactory(PostgreSQL95Dialect.class, sql -> {
+            statements.add(sql);
+            return sql;
+        });
+        EntityManager em = postgres.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            new MemberRepositoryImpl(em, null).claimByAge(10L, PageRequest.of(0, 5));
+        } catch (PersistenceException e) {
+            // H2가 PostgreSQL 잠금 구문을 실행하지 못해도 SQL은 이미 만들어졌다.
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+            postgres.close();
+        }
+
+        assertThat(statements).anySatisfy(sql -> assertThat(sql)
+                .containsIgnoringCase("from member")
+                .contains("for update of", "skip locked"));
+    }
+
+    @Test
+    public void concurrentClaimsSkipLockedRows() throws Exception {
+        Dialect dialect = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        assumeTrue(dialect.supportsSkipLocked(), "SKIP LOCKED를 지원하는 DB에서만 실행한다. dialect = " + dialect);
+
+        for (int i = 0; i < 4; i++) {
+            memberIds.add(memberRepository.save(new Member("claim" + i, 90L)).getId());
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch secondClaimed = new CountDownLatch(1);
+
+        // 첫 번째 워커는 잠금을 쥔 채로 두 번째 워커가 선점할 때까지 기다린다.
+        CompletableFuture<List<Long>> first = CompletableFuture.supplyAsync(() -> transaction.execute(status -> {
+            List<Long> ids = ids(memberRepository.claimByAge(90L, PageRequest.of(0, 2)));
+            firstClaimed.countDown();
+            await(secondClaimed);
+            return ids;
+        }));
+        assertThat(firstClaimed.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Long> second = transaction.execute(status -> ids(memberRepository.claimByAge(90L, PageRequest.of(0, 2))));
+        secondClaimed.countDown();
+
+        assertThat(second).hasSize(2).doesNotContainAnyElementsOf(first.get(5, TimeUnit.SECONDS));
+    }
+
+    private EntityManagerFactory entityManagerFactory(Class<? extends Dialect> dialect, StatementInspector inspector) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(AvailableSettings.DIALECT, dialect.getName());
+        properties.put(AvailableSettings.HBM2DDL_AUTO, "none");
+        properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("study.datajpa.entity");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(properties);
+        factory.setPersistenceUnitName("claim-" + dialect.getSimpleName());
+        factory.afterPropertiesSet();
+        return factory.getObject();
+    }
+
+    private static List<Long> ids(List<Member> members) {
+        return members.stream().map(Member::getId).collect(Collectors.toList());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
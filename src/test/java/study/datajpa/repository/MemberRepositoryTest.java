@@ -2,22 +2,34 @@ package study.datajpa.repository;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.CursorPage;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.support.QueryCounter;
+import study.datajpa.support.QueryStats;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -78,6 +90,44 @@ class MemberRepositoryTest {
         assertThat(deletedCount).isEqualTo(0);
     }
 
+    @Test
+    public void saveAllBatched() {
+        List<Member> members = IntStream.range(0, 250)
+                .mapToObj(i -> new Member("member" + i, (long) i))
+                .collect(Collectors.toList());
+        Member managed = memberRepository.save(new Member("managed", 10L));
+        long before = memberRepository.count();
+
+        long saved = memberRepository.saveAllBatched(members);
+
+        assertThat(saved).isEqualTo(250);
+        assertThat(memberRepository.count()).isEqualTo(before + 250);
+        assertThat(em.contains(members.get(0))).isFalse();
+        // 저장한 회원만 detach 하고, 이미 관리하던 엔티티는 그대로 남는다.
+        assertThat(em.contains(managed)).isTrue();
+    }
+
+    @Test
+    public void streamMemberDto() {
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("member1", 10L, teamA));
+        memberRepository.save(new Member("member2", 20L));
+
+        em.flush();
+        em.clear();
+
+        // when
+        List<MemberDto> result;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(1)) {
+            result = stream.collect(Collectors.toList());
+        }
+
+        // then
+        assertThat(result).extracting("username").contains("member1", "member2");
+        assertThat(result).extracting("teamName").contains("teamA");
+    }
+
     @Test
     public void findByUsernameAndAgeGreaterThen() {
         Member m1 = new Member("AAA", 10L);
@@ -187,6 +237,7 @@ class MemberRepositoryTest {
         memberRepository.save(new Member("member4", 10L));
         memberRepository.save(new Member("member5", 10L));
         memberRepository.save(new Member("member6", 10L));
+        memberRepository.save(new Member("member7", 20L));
 
         long age = 10L;
         int offset = 0;
@@ -220,6 +271,109 @@ class MemberRepositoryTest {
     }
 
 
+    @Test
+    public void slicePaging() {
+        memberRepository.save(new Member("member1", 71L));
+        memberRepository.save(new Member("member2", 71L));
+        memberRepository.save(new Member("member3", 71L));
+        memberRepository.save(new Member("member4", 72L));
+
+        // when
+        Slice<Member> first = memberRepository.findSliceByAge(71L, PageRequest.of(0, 2, Sort.by("username")));
+        Slice<Member> second = memberRepository.findSliceByAge(71L, PageRequest.of(1, 2, Sort.by("username")));
+
+        // then
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").containsExactly("member3");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void searchMemberDtoCountModes() {
+        memberRepository.save(new Member("member1", 71L));
+        memberRepository.save(new Member("member2", 71L));
+        memberRepository.save(new Member("member3", 72L));
+
+        em.flush();
+        em.clear();
+
+        PageRequest pageRequest = PageRequest.of(0, 1, Sort.by("username"));
+
+        // when
+        Slice<MemberDto> none = memberRepository.searchMemberDto(71L, pageRequest, CountMode.NONE);
+        Slice<MemberDto> exact = memberRepository.searchMemberDto(71L, pageRequest, CountMode.EXACT);
+        Slice<MemberDto> cached = memberRepository.searchMemberDto(71L, pageRequest, CountMode.CACHED);
+        // 테스트 트랜잭션의 커밋 전 회원까지 센다.
+        Slice<MemberDto> parallel = memberRepository.searchMemberDto(71L, pageRequest, CountMode.PARALLEL);
+
+        // then
+        assertThat(none).isNotInstanceOf(Page.class);
+        assertThat(none.hasNext()).isTrue();
+        assertThat(((Page<MemberDto>) exact).getTotalElements()).isEqualTo(2);
+        assertThat(((Page<MemberDto>) cached).getTotalElements()).isEqualTo(2);
+        assertThat(((Page<MemberDto>) parallel).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void memberDtoPaging() {
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+
+        memberRepository.save(new Member("member1", 10L, teamA));
+        memberRepository.save(new Member("member2", 10L, teamA));
+        memberRepository.save(new Member("member3", 10L));
+
+        em.flush();
+        em.clear();
+
+        // when
+        Page<MemberDto> page = memberRepository.findMemberDtoPage(PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "username")));
+
+        // then
+        assertThat(page.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(page.getContent()).extracting("teamName").containsExactly("teamA", "teamA");
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void cursorPaging() {
+        memberRepository.save(new Member("member1", 10L));
+        memberRepository.save(new Member("member2", 10L));
+        memberRepository.save(new Member("member2", 10L));
+        memberRepository.save(new Member("member3", 10L));
+        memberRepository.save(new Member("member4", 10L));
+
+        // when
+        CursorPage<Member> first = memberRepository.findAllByCursor(null, 2);
+        CursorPage<Member> second = memberRepository.findAllByCursor(first.getNextCursor(), 2);
+        CursorPage<Member> last = memberRepository.findAllByCursor(second.getNextCursor(), 2);
+
+        // then
+        assertThat(first.getContent()).extracting("username").containsExactly("member4", "member3");
+        assertThat(second.getContent()).extracting("username").containsExactly("member2", "member2");
+        assertThat(last.getContent()).extracting("username").containsExactly("member1");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(last.isHasNext()).isFalse();
+    }
+
+    @Test
+    public void cursorPagingWithNullUsername() {
+        memberRepository.save(new Member(null, 10L));
+        memberRepository.save(new Member(null, 10L));
+        memberRepository.save(new Member("member1", 10L));
+
+        // when: username이 null인 회원은 맨 뒤에 오고, null 커서 이후도 이어서 읽는다.
+        CursorPage<Member> first = memberRepository.findAllByCursor(null, 2);
+        CursorPage<Member> last = memberRepository.findAllByCursor(first.getNextCursor(), 2);
+
+        // then
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", null);
+        assertThat(last.getContent()).extracting("username").containsExactly((Object) null);
+        assertThat(last.isHasNext()).isFalse();
+    }
+
+
     /**
      * 벌크 업데이트 테스트 by JpaRepository;
      */
@@ -322,6 +476,37 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void detectNPlusOne() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        memberRepository.save(new Member("nPlusOne", 10L, teamA));
+        memberRepository.save(new Member("nPlusOne", 10L, teamB));
+
+        em.flush();
+        em.clear();
+
+        // 지연 로딩: 회원 1번 + 팀 1번 (default_batch_fetch_size로 두 팀을 in 쿼리 한 번에 초기화)
+        QueryStats lazy = QueryCounter.count(() -> {
+            for (Member member : memberRepository.findListByUsername("nPlusOne")) {
+                member.getTeam().getName();
+            }
+        });
+        em.clear();
+
+        // 엔티티 그래프: 1번
+        QueryStats fetchJoin = QueryCounter.assertMaxStatements(1, () -> {
+            for (Member member : memberRepository.findNamedEntityGraphByUsername("nPlusOne")) {
+                member.getTeam().getName();
+            }
+        });
+
+        assertThat(lazy.getStatements()).isEqualTo(2);
+        assertThat(fetchJoin.getEntities()).isEqualTo(4);
+    }
+
     @Test
     public void queryHint() {
         //given
@@ -400,6 +585,34 @@ class MemberRepositoryTest {
         assertThat(result.size()).isEqualTo(1);
     }
 
+    @Test
+    public void searchByCondition() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        Member m1 = new Member("m1", 0L, teamA);
+        Member m2 = new Member("m2", 0L, teamA);
+        em.persist(m1);
+        em.persist(m2);
+
+        em.flush();
+        em.clear();
+
+        // when: specBasic과 같은 조건
+        Page<Member> result = memberRepository.search(new MemberSearchCondition("m1", "teamA"), PageRequest.of(0, 10));
+        Page<Member> again = memberRepository.search(new MemberSearchCondition("m2", "teamA"), PageRequest.of(0, 10));
+
+        // then
+        assertThat(result.getContent()).extracting("username").containsExactly("m1");
+        assertThat(again.getContent()).extracting("username").containsExactly("m2");
+
+        // 허용하지 않는 정렬 속성은 쿼리를 만들지(캐시하지) 않고 실패한다.
+        assertThatThrownBy(() -> memberRepository.search(new MemberSearchCondition("m1", "teamA"),
+                PageRequest.of(0, 10, Sort.by("team.name, username"))))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class);
+    }
+
     @Test
     public void queryByExample() {
         // given
@@ -483,4 +696,138 @@ class MemberRepositoryTest {
         }
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void generatedProjections() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("generated", 0L, teamA));
+
+        em.flush();
+        em.clear();
+
+        // when
+        List<NestedClosedProjections> nested = memberRepository.findProjectionsByUsername("generated", NestedClosedProjections.class);
+        List<MemberProjection> nativeResult = memberRepository.findByNativeProjection(PageRequest.of(0, 10)).getContent();
+
+        // then: 프록시가 아닌 생성 클래스
+        assertThat(nested).hasSize(1);
+        assertThat(Proxy.isProxyClass(nested.get(0).getClass())).isFalse();
+        assertThat(nested.get(0).getUsername()).isEqualTo("generated");
+        assertThat(nested.get(0).getTeam().getName()).isEqualTo("teamA");
+
+        assertThat(nativeResult).isNotEmpty();
+        assertThat(nativeResult).allSatisfy(projection -> {
+            assertThat(Proxy.isProxyClass(projection.getClass())).isFalse();
+            assertThat(projection.getId()).isNotNull();
+        });
+    }
+
+
+    @Test
+    public void openProjectionPushdown() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("openProjection", 10L, teamA));
+
+        em.flush();
+        em.clear();
+
+        // when: SpEL(target.username + ' ' + target.age)을 select 절에서 계산한다.
+        List<UsernameOnly> result = new ArrayList<>();
+        QueryStats stats = QueryCounter.assertMaxStatements(1,
+                () -> result.addAll(memberRepository.findProjectionsByUsername("openProjection", UsernameOnly.class)));
+
+        // then: 엔티티를 만들지 않는다.
+        assertThat(result).extracting("username").containsExactly("openProjection 10");
+        assertThat(stats.getEntities()).isZero();
+    }
+
+    @Test
+    public void openProjectionPushdownWithNull() {
+        // given: age가 null
+        em.persist(new Member("openProjectionNull"));
+
+        em.flush();
+        em.clear();
+
+        // when
+        List<UsernameOnly> result = memberRepository.findProjectionsByUsername("openProjectionNull", UsernameOnly.class);
+
+        // then: SpEL과 같이 null 을 "null" 로 연결한다. (SQL concat 처럼 결과 전체가 null 이 되지 않는다.)
+        assertThat(result).extracting("username").containsExactly("openProjectionNull null");
+    }
+
+
+    public interface UsernameWithBean {
+        @Value("#{target.username + '-' + @environment.getProperty('spring.datasource.username')}")
+        String getUsername();
+    }
+
+    @Test
+    public void openProjectionWithBeanReference() {
+        // given
+        em.persist(new Member("beanReference", 10L));
+
+        em.flush();
+        em.clear();
+
+        // when: @bean 참조는 JPQL로 바꿀 수 없으므로 엔티티를 조회해서 계산한다.
+        List<UsernameWithBean> result = memberRepository.findProjectionsByUsername("beanReference", UsernameWithBean.class);
+
+        // then
+        assertThat(result).extracting("username").containsExactly("beanReference-sa");
+    }
+
+    @Test
+    public void nestedProjectionColumns() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("nestedColumns", 10L, teamA));
+        em.persist(new Member("nestedColumns", 20L));
+
+        em.flush();
+        em.clear();
+
+        // when: m.username, 팀 이름만 조회한다.
+        List<NestedClosedProjections> result = new ArrayList<>();
+        QueryStats stats = QueryCounter.assertMaxStatements(1,
+                () -> result.addAll(memberRepository.findProjectionsByUsername("nestedColumns", NestedClosedProjections.class)));
+
+        // then: 팀 엔티티를 만들지 않고, 팀이 없는 회원은 team 이 null
+        assertThat(stats.getEntities()).isZero();
+        assertThat(result).hasSize(2);
+        assertThat(result).extracting(projection -> projection.getTeam() == null ? null : projection.getTeam().getName())
+                .containsExactlyInAnyOrder("teamA", null);
+    }
+
+    @Test
+    public void nestedProjectionWithNullColumns() {
+        // given: 팀은 있지만 이름이 null
+        Team unnamed = new Team(null);
+        em.persist(unnamed);
+        em.persist(new Member("nestedNullColumns", 10L, unnamed));
+
+        em.flush();
+        em.clear();
+
+        // when
+        List<NestedClosedProjections> result = memberRepository.findProjectionsByUsername("nestedNullColumns", NestedClosedProjections.class);
+
+        // then: 스프링 데이터와 같이 팀 Projection은 null이 아니다.
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getTeam()).isNotNull();
+        assertThat(result.get(0).getTeam().getName()).isNull();
+    }
+
+
+    @Test
+    public void claimFailsWithoutSkipLocked() {
+        // H2Dialect는 SKIP LOCKED를 렌더링하지 않으므로 조용히 대기하는 대신 실패한다.
+        assertThatThrownBy(() -> memberRepository.claimByAge(10L, PageRequest.of(0, 10)))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,106 @@
+package study.datajpa.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManagerFactory;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "datajpa.cache.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:datajpa-cache"
+})
+class MemberSecondLevelCacheTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void findByIdHitsCache() {
+        // given
+        Member member = memberRepository.save(new Member("member1", 10L));
+        emf.getCache().evictAll();
+        statistics.clear();
+
+        // when
+        memberRepository.findById(member.getId()); // miss -> put
+        memberRepository.findById(member.getId()); // hit
+
+        // then
+        assertThat(statistics.getSecondLevelCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void bulkUpdateInvalidatesCache() {
+        // given
+        Member member = memberRepository.save(new Member("member1", 20L));
+        memberRepository.findById(member.getId());
+
+        // when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.bulkAgePlus(20L));
+
+        // then
+        Member findMember = memberRepository.findById(member.getId()).get();
+        assertThat(findMember.getAge()).isEqualTo(21L);
+    }
+
+    @Test
+    public void findByUsernameHitsQueryCache() {
+        // given
+        memberRepository.save(new Member("member1", 10L));
+        statistics.clear();
+
+        // when
+        memberRepository.findByUsername("member1");
+        memberRepository.findByUsername("member1");
+
+        // then
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void updateInvalidatesQueryCache() {
+        // given
+        Member member = memberRepository.save(new Member("member1", 10L));
+        assertThat(memberRepository.findListByUsername("member1")).hasSize(1);
+
+        // when
+        transactionTemplate.executeWithoutResult(status ->
+                memberRepository.findById(member.getId()).get().changeUsername("member2"));
+
+        // then
+        List<Member> result = memberRepository.findListByUsername("member1");
+        assertThat(result).isEmpty();
+        assertThat(memberRepository.findListByUsername("member2")).hasSize(1);
+    }
+}
@@ -0,0 +1,101 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCounterTest {
+
+    PageCounter pageCounter = new PageCounter(Duration.ofMinutes(1), 1, Duration.ofMillis(200));
+    Pageable pageable = PageRequest.of(0, 2);
+    List<String> rows = List.of("a", "b");
+
+    @AfterEach
+    public void tearDown() {
+        pageCounter.shutdown();
+    }
+
+    @Test
+    public void parallelCountOnOtherThread() {
+        AtomicReference<Thread> countThread = new AtomicReference<>();
+
+        Slice<String> page = pageCounter.execute(pageable, CountMode.PARALLEL, "key", max -> rows, () -> {
+            countThread.set(Thread.currentThread());
+            return 10L;
+        });
+
+        assertThat(countThread.get()).isNotSameAs(Thread.currentThread());
+        assertThat(page).extracting("totalElements").isEqualTo(10L);
+    }
+
+    @Test
+    public void parallelCountInTransaction() {
+        // 트랜잭션 안에서는 호출한 스레드(같은 트랜잭션)에서 센다.
+        AtomicReference<Thread> countThread = new AtomicReference<>();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            pageCounter.execute(pageable, CountMode.PARALLEL, "key", max -> rows, () -> {
+                countThread.set(Thread.currentThread());
+                return 10L;
+            });
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(countThread.get()).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    public void parallelCountTimeout() {
+        assertThatThrownBy(() -> pageCounter.execute(pageable, CountMode.PARALLEL, "key", max -> rows, () -> {
+            sleep(Duration.ofSeconds(5));
+            return 10L;
+        })).isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    public void parallelCountFailure() {
+        // CompletionException으로 감싸지 않고 원래 예외를 던진다.
+        assertThatThrownBy(() -> pageCounter.execute(pageable, CountMode.PARALLEL, "key", max -> rows, () -> {
+            throw new IllegalStateException("count");
+        })).isExactlyInstanceOf(IllegalStateException.class).hasMessage("count");
+    }
+
+    @Test
+    public void cachedCount() {
+        AtomicInteger counts = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            pageCounter.execute(pageable, CountMode.CACHED, "key", max -> rows, () -> {
+                counts.incrementAndGet();
+                return 10L;
+            });
+        }
+        pageCounter.execute(pageable, CountMode.CACHED, "other", max -> rows, () -> {
+            counts.incrementAndGet();
+            return 0L;
+        });
+
+        assertThat(counts).hasValue(2);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
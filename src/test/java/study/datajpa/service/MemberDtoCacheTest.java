@@ -0,0 +1,99 @@
+package study.datajpa.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋 후 무효화를 확인해야 하므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest
+class MemberDtoCacheTest {
+
+    @Autowired
+    MemberDtoCache memberDtoCache;
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Team team;
+    List<Member> members;
+
+    @AfterEach
+    public void tearDown() {
+        // 버전이 바뀌었으므로 id로 삭제한다.
+        memberRepository.deleteAllById(members.stream().map(Member::getId).collect(Collectors.toList()));
+        teamRepository.deleteById(team.getId());
+    }
+
+    @Test
+    public void invalidateOnChange() {
+        team = teamRepository.save(new Team("dtoCacheTeam"));
+        members = memberRepository.saveAll(Arrays.asList(
+                new Member("dtoCache1", 10L, team),
+                new Member("dtoCache2", 20L, team)));
+        Long id1 = members.get(0).getId();
+        Long id2 = members.get(1).getId();
+
+        // 두 번째 조회부터는 조회하지 않는다.
+        memberDtoCache.get(id1);
+        memberDtoCache.get(id2);
+        double batches = batches();
+        memberDtoCache.get(id1);
+        assertThat(batches()).isEqualTo(batches);
+
+        // 팀 이름 변경: 그 팀 이름을 가진 DTO가 모두 지워진다.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                teamRepository.findById(team.getId()).get().setName("dtoCacheTeamRenamed"));
+        assertThat(load(id1).getTeamName()).isEqualTo("dtoCacheTeamRenamed");
+        assertThat(load(id2).getTeamName()).isEqualTo("dtoCacheTeamRenamed");
+
+        // 회원 수정: 그 회원만 지워진다.
+        memberService.changeUsername(id1, "dtoCache1Renamed");
+        assertThat(load(id1).getUsername()).isEqualTo("dtoCache1Renamed");
+        batches = batches();
+        memberDtoCache.get(id2);
+        assertThat(batches()).isEqualTo(batches);
+    }
+
+    /**
+     * 무효화된 항목은 다시 조회해야 한다. (캐시 미스는 로더 스레드에서 조회하므로 QueryCounter 대신 배치 수로 확인)
+     */
+    private MemberDto load(Long id) {
+        double before = batches();
+        MemberDto result = memberDtoCache.get(id).get();
+        assertThat(batches()).isEqualTo(before + 1);
+        return result;
+    }
+
+    private double batches() {
+        return meterRegistry.summary("batch.loader.size", "loader", "memberDto").count();
+    }
+}
@@ -0,0 +1,117 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.support.OptimisticRetryExecutor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 트랜잭션 커밋 시점의 버전 충돌을 확인해야 하므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest
+class MemberServiceTest {
+
+    @Autowired
+    MemberService memberService;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    OptimisticRetryExecutor retryExecutor;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Long memberId;
+    Long otherMemberId;
+    Long teamId;
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteById(memberId);
+        if (otherMemberId != null) {
+            memberRepository.deleteById(otherMemberId);
+        }
+        if (teamId != null) {
+            teamRepository.deleteById(teamId);
+        }
+    }
+
+    @Test
+    public void changeUsername() {
+        memberId = memberRepository.save(new Member("member1", 10L)).getId();
+
+        memberService.changeUsername(memberId, "member2");
+
+        Member findMember = memberRepository.findById(memberId).get();
+        assertThat(findMember.getUsername()).isEqualTo("member2");
+        assertThat(findMember.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void retryOnConflict() {
+        memberId = memberRepository.save(new Member("member1", 10L)).getId();
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        retryExecutor.execute(() -> {
+            Member member = memberRepository.findById(memberId).get();
+            if (attempts.incrementAndGet() == 1) {
+                // 첫 시도 중에 다른 트랜잭션이 먼저 수정하고 커밋한다.
+                other.executeWithoutResult(status -> memberRepository.findById(memberId).get().changeUsername("other"));
+            }
+            member.changeUsername("mine");
+            return member;
+        });
+
+        // then
+        Member findMember = memberRepository.findById(memberId).get();
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(findMember.getUsername()).isEqualTo("mine");
+        assertThat(findMember.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    public void concurrentChangeTeamIntoSameTeam() {
+        memberId = memberRepository.save(new Member("member1", 10L)).getId();
+        otherMemberId = memberRepository.save(new Member("member2", 10L)).getId();
+        teamId = teamRepository.save(new Team("teamA")).getId();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        retryExecutor.execute(() -> {
+            Member member = memberRepository.findById(memberId).get();
+            Team team = teamRepository.findById(teamId).get();
+            if (attempts.incrementAndGet() == 1) {
+                // 첫 시도 중에 다른 회원이 같은 팀으로 먼저 이동하고 커밋한다.
+                memberService.changeTeam(otherMemberId, teamId);
+            }
+            member.changeTeam(team);
+            return member;
+        });
+
+        // then: 팀 버전이 오르지 않으므로 충돌(재시도) 없이 둘 다 이동한다.
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(teamRepository.findById(teamId).get().getVersion()).isEqualTo(0L);
+        assertThat(memberRepository.findById(memberId).get().getTeam().getId()).isEqualTo(teamId);
+        assertThat(memberRepository.findById(otherMemberId).get().getTeam().getId()).isEqualTo(teamId);
+    }
+}
@@ -0,0 +1,100 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchLoaderTest {
+
+    List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+    BatchLoader<Long, String> loader;
+
+    @AfterEach
+    public void tearDown() {
+        loader.shutdown();
+    }
+
+    @Test
+    public void coalesceWithinWindow() {
+        loader = loader(Duration.ofMillis(200), 100);
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            futures.add(loader.load(id));
+        }
+        futures.add(loader.load(1L)); // 같은 키
+
+        assertThat(futures.stream().map(CompletableFuture::join))
+                .containsExactly("v1", "v2", "v3", "v4", "v5", "v6", "v7", "v8", "v9", "v10", "v1");
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(10);
+    }
+
+    @Test
+    public void dispatchWhenFull() {
+        // window가 길어도 maxBatchSize 개가 모이면 바로 조회한다.
+        loader = loader(Duration.ofMinutes(1), 3);
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            futures.add(loader.load(id));
+        }
+
+        futures.forEach(CompletableFuture::join);
+        assertThat(batches).extracting(Set::size).containsExactly(3, 3);
+    }
+
+    @Test
+    public void missingKeyAndFailure() {
+        loader = loader(Duration.ofMillis(10), 100);
+        assertThat(loader.load(-1L).join()).isNull();
+
+        BatchLoader<Long, String> failing = new BatchLoader<>("failing", ids -> {
+            throw new IllegalStateException("db down");
+        }, Duration.ofMillis(10), 100, Duration.ofSeconds(5), 1, new SimpleMeterRegistry());
+        try {
+            assertThatThrownBy(() -> failing.load(1L).join()).hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            failing.shutdown();
+        }
+
+        BatchLoader<Long, String> erroring = new BatchLoader<>("erroring", ids -> {
+            throw new StackOverflowError();
+        }, Duration.ofMillis(10), 100, Duration.ofSeconds(5), 1, new SimpleMeterRegistry());
+        try {
+            assertThatThrownBy(() -> erroring.load(1L).join()).hasCauseInstanceOf(StackOverflowError.class);
+        } finally {
+            erroring.shutdown();
+        }
+    }
+
+    @Test
+    public void getTimesOut() {
+        // window가 timeout 보다 길면 기다리지 않고 실패한다.
+        loader = new BatchLoader<>("slow", ids -> Collections.emptyMap(),
+                Duration.ofMinutes(1), 100, Duration.ofMillis(50), 1, new SimpleMeterRegistry());
+
+        assertThatThrownBy(() -> loader.get(1L)).isInstanceOf(QueryTimeoutException.class);
+    }
+
+    private BatchLoader<Long, String> loader(Duration window, int maxBatchSize) {
+        return new BatchLoader<>("test", ids -> {
+            batches.add(Set.copyOf(ids));
+            return ids.stream().filter(id -> id > 0).collect(Collectors.toMap(Function.identity(), id -> "v" + id));
+        }, window, maxBatchSize, Duration.ofSeconds(5), 2, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.support;
+
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * 테스트용 SQL 카운터
+ * 블록 안에서 실행된 SQL 수를 세고, 기대보다 많으면 테스트를 실패시킨다. (N+1 회귀 방지)
+ */
+public class QueryCounter {
+
+    private QueryCounter() {
+    }
+
+    public static QueryStats count(Runnable block) {
+        QueryStats stats = QueryStatsHolder.start();
+        try {
+            block.run();
+        } finally {
+            QueryStatsHolder.stop(stats);
+        }
+        return stats;
+    }
+
+    public static QueryStats assertMaxStatements(long max, Runnable block) {
+        QueryStats stats = count(block);
+        if (stats.getStatements() > max) {
+            fail("SQL이 최대 " + max + "번 실행되어야 하는데 " + stats.getStatements() + "번 실행되었습니다. " + stats);
+        }
+        return stats;
+    }
+}
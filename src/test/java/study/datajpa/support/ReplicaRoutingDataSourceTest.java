@@ -0,0 +1,165 @@
+package study.datajpa.support;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 두 번째 H2 인메모리 DB를 레플리카로 사용한다. (복제는 하지 않고 스키마만 복사)
+ * 레플리카에만 있는 데이터가 조회되면 레플리카로 라우팅된 것이다.
+ */
+@SpringBootTest(properties = {
+        "datajpa.replica.enabled=true",
+        "datajpa.replica.urls[0]=" + ReplicaRoutingDataSourceTest.REPLICA_URL,
+        "spring.datasource.url=jdbc:h2:mem:datajpa-routing"
+})
+class ReplicaRoutingDataSourceTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:datajpa-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ReplicaDataSources replicaDataSources;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @PersistenceContext
+    EntityManager em;
+
+    JdbcTemplate replica;
+
+    @BeforeEach
+    public void copySchema() {
+        List<String> script = new JdbcTemplate(replicaDataSources.getPrimary()).queryForList("SCRIPT NODATA", String.class);
+
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : script) {
+            if (!statement.startsWith("--")) {
+                replica.execute(statement);
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void routeReadOnlyToReplica() {
+        // given
+        memberRepository.save(new Member("routing", 10L));
+        replica.update("insert into member (member_id, username, age, version) values (?, ?, ?, ?)", -1L, "routing", 20L, 0L);
+
+        // when, then: 읽기 전용은 레플리카
+        assertThat(memberRepository.findReadOnlyByUsername("routing").getAge()).isEqualTo(20L);
+        assertThat(memberRepository.findById(-1L)).isPresent();
+
+        // 쓰기 트랜잭션 안에서는 primary
+        Member inWriteTransaction = new TransactionTemplate(transactionManager)
+                .execute(status -> memberRepository.findReadOnlyByUsername("routing"));
+        assertThat(inWriteTransaction.getAge()).isEqualTo(10L);
+    }
+
+    @Test
+    public void writeAfterReadInSameEntityManager() {
+        // given: open-in-view 처럼 요청 하나에서 EntityManager를 공유한다.
+        replica.update("insert into member (member_id, username, age, version) values (?, ?, ?, ?)", -3L, "osiv", 20L, 0L);
+        EntityManager shared = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(shared));
+
+        try {
+            // when: 읽기 전용 조회(레플리카) 다음 쓰기
+            assertThat(memberRepository.findReadOnlyByUsername("osiv").getAge()).isEqualTo(20L);
+            memberRepository.save(new Member("osivWrite", 10L));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            shared.close();
+        }
+
+        // then: 쓰기는 primary
+        String count = "select count(*) from member where username = 'osivWrite'";
+        assertThat(new JdbcTemplate(replicaDataSources.getPrimary()).queryForObject(count, Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject(count, Integer.class)).isZero();
+    }
+
+    @Test
+    public void readOnlySessionHasNoSnapshot() {
+        // given
+        replica.update("insert into member (member_id, username, age, version) values (?, ?, ?, ?)", -2L, "snapshot", 20L, 0L);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // when
+        Boolean result = readOnly.execute(status -> {
+            Member member = memberRepository.findById(-2L).get();
+            return em.unwrap(Session.class).isReadOnly(member);
+        });
+
+        // then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void fallBackToPrimaryWhenReplicaIsDown() throws Exception {
+        // given: 접속할 수 없는 레플리카
+        ReplicaDataSources dataSources = new ReplicaDataSources(replicaDataSources.getPrimary(),
+                Collections.singletonList(new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/nowhere", "sa", "")),
+                null, Duration.ofSeconds(5));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(dataSources);
+
+        // when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = routing.getConnection()) {
+            // then
+            assertThat(connection.getMetaData().getURL()).startsWith("jdbc:h2:mem:datajpa-routing");
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        assertThat(dataSources.isHealthy(0)).isFalse();
+    }
+
+    @Test
+    public void excludeLaggingReplica() {
+        // given: 지연 10초, 허용 5초
+        ReplicaDataSources dataSources = new ReplicaDataSources(replicaDataSources.getPrimary(),
+                Collections.singletonList(new DriverManagerDataSource(REPLICA_URL, "sa", "")),
+                "select 10", Duration.ofSeconds(5));
+
+        // when
+        dataSources.probe();
+
+        // then
+        assertThat(dataSources.isHealthy(0)).isFalse();
+        assertThat(dataSources.nextReplica()).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,60 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RepositoryExecutorTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RepositoryExecutor executor = new RepositoryExecutor(1, 1, registry);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void rejectWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // 스레드 1개가 실행 중, 대기열 1칸이 가득 찬 상태
+        CompletableFuture<String> running = executor.submit(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        CompletableFuture<String> queued = executor.submit(() -> "queued");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(registry.get("repository.executor.active").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("repository.executor.queue").gauge().value()).isEqualTo(1);
+
+        // 대기하지 않고 바로 거절한다.
+        assertThatThrownBy(() -> executor.submit(() -> "rejected"))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(registry.get("repository.executor.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("running");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+        assertThat(registry.get("repository.executor.wait").timer().count()).isEqualTo(2);
+    }
+
+    static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SqlTraceListenerTest {
+
+    @Autowired
+    SqlTraceEndpoint endpoint;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void tearDown() {
+        endpoint.configure(false, 100d, 0L);
+    }
+
+    @Test
+    public void toggleAtRuntime() {
+        // 기본은 꺼져 있다.
+        double before = logged();
+        memberRepository.findByUsername("sqlTrace");
+        assertThat(logged()).isEqualTo(before);
+
+        // 켜면 모든 SQL을 남긴다.
+        endpoint.configure(true, 100d, 0L);
+        memberRepository.findByUsername("sqlTrace");
+        assertThat(logged()).isGreaterThan(before);
+
+        // 임계값보다 빠른 SQL, 샘플링 0%는 남기지 않는다.
+        endpoint.configure(null, null, 60_000L);
+        double slowOnly = logged();
+        memberRepository.findByUsername("sqlTrace");
+        assertThat(logged()).isEqualTo(slowOnly);
+
+        endpoint.configure(null, 0d, 0L);
+        memberRepository.findByUsername("sqlTrace");
+        assertThat(logged()).isEqualTo(slowOnly);
+        assertThat(endpoint.settings()).containsEntry("enabled", true).containsEntry("samplePercent", 0d);
+    }
+
+    private double logged() {
+        return meterRegistry.counter("jpa.sql.trace.logged").count();
+    }
+}